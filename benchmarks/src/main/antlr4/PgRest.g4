@@ -17,14 +17,16 @@ joinType: JOIN | INNER JOIN;
 // WHERE clause
 whereClause: WHERE condition (AND condition)*;
 
-// ORDER BY clause (optional)
-orderClause: ORDER BY column (ASC | DESC)?;
+// ORDER BY clause (optional), one or more sort keys
+orderClause: ORDER BY orderItem (',' orderItem)*;
+
+orderItem: column (ASC | DESC)?;
 
 // LIMIT clause (optional)
-limitClause: LIMIT NUMBER;
+limitClause: LIMIT (NUMBER | PARAM);
 
 // OFFSET clause (optional)
-offsetClause: OFFSET NUMBER;
+offsetClause: OFFSET (NUMBER | PARAM);
 
 // List of columns in the SELECT clause
 selectList: column (',' column)*;
@@ -45,10 +47,13 @@ jsonbAccess: ('->' | '->>' | '@>' | '#>>') STRING (jsonbAccess)?;
 tableName: (ID '.')? ID (ID)?;  // Optional schema name and table alias
 
 // Condition for WHERE and JOIN clauses
-condition: column OPERATOR (column | value);
+condition: column OPERATOR (column | value) | rowComparison;
+
+// Row-value comparison used for keyset pagination, e.g. (created_at, id) > (?, ?)
+rowComparison: '(' column (',' column)* ')' OPERATOR '(' value (',' value)* ')';
 
-// Possible values in conditions (including JSONB values and literals)
-value: STRING | NUMBER | BOOLEAN | ID | jsonbValue;
+// Possible values in conditions (including JSONB values, literals and bind parameters)
+value: STRING | NUMBER | BOOLEAN | ID | PARAM | jsonbValue;
 
 // JSONB value as key-value pairs
 jsonbValue: '{' pair (',' pair)* '}';
@@ -63,6 +68,7 @@ JOIN: 'JOIN';
 INNER: 'INNER';
 ON: 'ON';
 WHERE: 'WHERE';
+AND: 'AND';
 ORDER: 'ORDER';
 BY: 'BY';
 LIMIT: 'LIMIT';
@@ -86,6 +92,9 @@ NUMBER: [0-9]+;
 // Boolean literals
 BOOLEAN: 'TRUE' | 'FALSE';
 
+// Bind parameter placeholder
+PARAM: '?';
+
 // Semicolon for query end
 SEMICOLON: ';';
 
@@ -0,0 +1,201 @@
+package com.api.pg.bench;
+
+import com.api.pg.schema.SchemaCatalog;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark inputs taken from the API's sample requests (test/sample_request_*.json) and the
+ * Postman collection, plus a schema catalog matching the tables they use.
+ * The samples use the public select/from/join/where layout; they are adapted here to the
+ * request shapes QueryTranslator and JsonToDslTranslator accept.
+ */
+final class BenchmarkInputs {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final List<String> SAMPLE_FILES = Arrays.asList(
+            "test/sample_request_join.json",
+            "test/sample_request_jsonb.json");
+
+    private static final String POSTMAN_COLLECTION = "test/postgresql_dsl_queries.postman_collection.json";
+
+    private BenchmarkInputs() {
+    }
+
+    // Allowlist covering every table and column used by the samples, without database types
+    static SchemaCatalog schemaCatalog() {
+        Map<String, Map<String, List<String>>> allowlist = new HashMap<>();
+
+        Map<String, List<String>> users = new HashMap<>();
+        users.put("columns", Arrays.asList("id", "name", "email", "age", "user_data"));
+        users.put("jsonb", Collections.singletonList("user_data->>'name'"));
+        users.put("key", Collections.singletonList("id"));
+        allowlist.put("users", users);
+
+        Map<String, List<String>> orders = new HashMap<>();
+        orders.put("columns", Arrays.asList("order_id", "user_id", "amount", "status"));
+        orders.put("key", Collections.singletonList("order_id"));
+        allowlist.put("orders", orders);
+
+        return SchemaCatalog.fromAllowlist(allowlist);
+    }
+
+    // Every sample request in its original select/from/join/where layout
+    static List<Map<String, Object>> sampleRequests() {
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (String file : SAMPLE_FILES) {
+            requests.add(read(file));
+        }
+        JsonNode collection = MAPPER.convertValue(read(POSTMAN_COLLECTION), JsonNode.class);
+        for (JsonNode item : collection.get("item")) {
+            requests.add(parse(item.get("request").get("body").get("raw").asText()));
+        }
+        return requests;
+    }
+
+    // Single-table samples as QueryTranslator requests: table/fields/conditions/pagination
+    static List<Map<String, Object>> translatorRequests() {
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (Map<String, Object> sample : sampleRequests()) {
+            if (sample.containsKey("join")) {
+                continue;  // QueryTranslator handles single tables only
+            }
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("table", sample.get("from"));
+            request.put("fields", sample.get("select"));
+
+            Map<String, Object> conditions = new LinkedHashMap<>();
+            forEachCondition(sample, (column, operator, value) -> {
+                Map<String, Object> condition = new HashMap<>();
+                condition.put("operator", operator);
+                condition.put("value", value);
+                conditions.put(column, condition);
+            });
+            request.put("conditions", conditions);
+
+            Map<String, Object> pagination = new HashMap<>();
+            pagination.put("limit", sample.get("limit"));
+            pagination.put("offset", sample.get("offset"));
+            request.put("pagination", pagination);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    // All samples as Elasticsearch-style DSL requests: _source/from/joins/query.bool.must/size/offset
+    static List<Map<String, Object>> dslRequests() {
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (Map<String, Object> sample : sampleRequests()) {
+            String table = (String) sample.get("from");
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("from", table);
+
+            // DSL columns are alias-qualified; without an alias the table name is the alias
+            List<String> source = new ArrayList<>();
+            for (String column : (List<String>) sample.get("select")) {
+                source.add(column.contains(".") ? column : table + "." + column);
+            }
+            request.put("_source", source);
+
+            List<Map<String, Object>> joins = new ArrayList<>();
+            if (sample.containsKey("join")) {
+                for (Map<String, Object> join : (List<Map<String, Object>>) sample.get("join")) {
+                    Map<String, Object> on = (Map<String, Object>) join.get("on");
+                    Map.Entry<String, Object> condition = on.entrySet().iterator().next();
+                    Map<String, Object> dslJoin = new HashMap<>();
+                    dslJoin.put("type", "INNER");
+                    dslJoin.put("table", join.get("table"));
+                    dslJoin.put("on", condition.getKey() + " = " + condition.getValue());
+                    joins.add(dslJoin);
+                }
+                request.put("joins", joins);
+            }
+
+            List<Map<String, Object>> must = new ArrayList<>();
+            forEachCondition(sample, (column, operator, value) -> {
+                String qualified = column.contains(".") ? column : table + "." + column;
+                if (operator.equals("=")) {
+                    must.add(Collections.singletonMap("match", Collections.singletonMap(qualified, value)));
+                } else if (operator.equals(">") || operator.equals("<")) {
+                    String rangeOperator = operator.equals(">") ? "gt" : "lt";
+                    must.add(Collections.singletonMap("range",
+                            Collections.singletonMap(qualified, Collections.singletonMap(rangeOperator, value))));
+                }
+            });
+            if (!must.isEmpty()) {
+                request.put("query", Collections.singletonMap("bool", Collections.singletonMap("must", must)));
+            }
+            request.put("size", sample.get("limit"));
+            // "from" already names the table; the sample's offset keeps the OFFSET path in the measurement
+            if (sample.get("offset") != null) {
+                request.put("offset", sample.get("offset"));
+            }
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    interface ConditionConsumer {
+        void accept(String column, String operator, Object value);
+    }
+
+    // Maps the sample "where" operators (eq, gt, lt, like, contains) to SQL operators
+    private static void forEachCondition(Map<String, Object> sample, ConditionConsumer consumer) {
+        Map<String, Map<String, Object>> where = (Map<String, Map<String, Object>>) sample.get("where");
+        if (where == null) {
+            return;
+        }
+        for (Map.Entry<String, Map<String, Object>> column : where.entrySet()) {
+            for (Map.Entry<String, Object> condition : column.getValue().entrySet()) {
+                switch (condition.getKey()) {
+                    case "eq": consumer.accept(column.getKey(), "=", condition.getValue()); break;
+                    case "gt": consumer.accept(column.getKey(), ">", condition.getValue()); break;
+                    case "lt": consumer.accept(column.getKey(), "<", condition.getValue()); break;
+                    case "like": consumer.accept(column.getKey(), "LIKE", condition.getValue()); break;
+                    case "contains": consumer.accept(column.getKey(), "@>", toJson(condition.getValue())); break;
+                    default: throw new IllegalArgumentException("Unsupported sample operator: " + condition.getKey());
+                }
+            }
+        }
+    }
+
+    private static Map<String, Object> read(String resource) {
+        try (InputStream in = BenchmarkInputs.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Benchmark input not found on classpath: " + resource);
+            }
+            return MAPPER.readValue(in, new TypeReference<Map<String, Object>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Object> parse(String json) {
+        try {
+            return MAPPER.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.api.pg.bench;
+
+import com.api.pg.QueryTranslator;
+import com.api.pg.bench.baseline.PostgresSQLValidator;
+import com.api.pg.bench.baseline.QueryValidator;
+import com.api.pg.schema.SchemaCatalog;
+import com.example.dsl.JsonToDslTranslator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request translation hot paths: JSON request to validated SQL for both DSLs, and the
+ * alias/column check QueryValidator performs. Each operation processes every sample once.
+ * translateThenParse is the baseline for translateAndValidateQuery: the same translation
+ * followed by the ANTLR validation the translator ran before requests were compiled from an AST.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TranslationBenchmark {
+
+    // Shape cache of the baseline's validator; 0 makes every call lex and parse
+    @Param({"0", "1024"})
+    public int shapeCacheSize;
+
+    private QueryTranslator queryTranslator;
+    private PostgresSQLValidator validator;
+    private JsonToDslTranslator jsonToDslTranslator;
+    private QueryValidator queryValidator;
+
+    private List<Map<String, Object>> translatorRequests;
+    private List<Map<String, Object>> dslRequests;
+
+    @Setup
+    public void setUp() {
+        SchemaCatalog schemaCatalog = BenchmarkInputs.schemaCatalog();
+        validator = new PostgresSQLValidator(schemaCatalog, shapeCacheSize);
+        queryTranslator = new QueryTranslator(schemaCatalog);
+        queryValidator = new QueryValidator(schemaCatalog);
+        jsonToDslTranslator = new JsonToDslTranslator(schemaCatalog);
+
+        translatorRequests = BenchmarkInputs.translatorRequests();
+        dslRequests = BenchmarkInputs.dslRequests();
+    }
+
+    @Benchmark
+    public void translateAndValidateQuery(Blackhole blackhole) throws Exception {
+        for (Map<String, Object> request : translatorRequests) {
+            blackhole.consume(queryTranslator.translateAndValidateQuery(request));
+        }
+    }
+
+    @Benchmark
+    public void translateThenParse(Blackhole blackhole) throws Exception {
+        for (Map<String, Object> request : translatorRequests) {
+            String sql = queryTranslator.translateAndValidateQuery(request).getSql();
+            validator.validateQuery(sql);
+            blackhole.consume(sql);
+        }
+    }
+
+    @Benchmark
+    public void translateToDsl(Blackhole blackhole) {
+        for (Map<String, Object> request : dslRequests) {
+            blackhole.consume(jsonToDslTranslator.translateToDsl(request));
+        }
+    }
+
+    @Benchmark
+    public void validateDslQuery(Blackhole blackhole) {
+        for (Map<String, Object> request : dslRequests) {
+            blackhole.consume(queryValidator.validateQuery(request));
+        }
+    }
+}
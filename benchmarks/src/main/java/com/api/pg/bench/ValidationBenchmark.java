@@ -0,0 +1,107 @@
+package com.api.pg.bench;
+
+import com.api.pg.ParameterizedQuery;
+import com.api.pg.QueryTranslator;
+import com.api.pg.bench.baseline.PostgresSQLValidator;
+import com.api.pg.bench.baseline.SqlDslVisitor;
+import com.api.pg.schema.SchemaCatalog;
+import com.api.query.PgRestLexer;
+import com.api.query.PgRestParser;
+import com.example.dsl.JsonToDslTranslator;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ANTLR hot paths of the baseline validator on the SQL produced from the samples: validateQuery
+ * with and without the shape cache, and a parse plus SqlDslVisitor rewrite in page and count mode.
+ * parseFreshParserLl is the baseline for validateQuery with shapeCacheSize=0: a new lexer and
+ * parser per query in full LL mode, as the validator did before the two-stage parse.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ValidationBenchmark {
+
+    // 0 disables the validation shape cache, so every call lexes and parses
+    @Param({"0", "1024"})
+    public int shapeCacheSize;
+
+    private PostgresSQLValidator validator;
+    private List<String> translatedSql;
+    private List<ParameterizedQuery> dslQueries;
+
+    @Setup
+    public void setUp() throws Exception {
+        SchemaCatalog schemaCatalog = BenchmarkInputs.schemaCatalog();
+        validator = new PostgresSQLValidator(schemaCatalog, shapeCacheSize);
+
+        // Translate once up front; only validation and visiting are measured
+        QueryTranslator queryTranslator = new QueryTranslator(schemaCatalog);
+        translatedSql = new ArrayList<>();
+        for (Map<String, Object> request : BenchmarkInputs.translatorRequests()) {
+            translatedSql.add(queryTranslator.translateAndValidateQuery(request).getSql());
+        }
+
+        JsonToDslTranslator jsonToDslTranslator = new JsonToDslTranslator(schemaCatalog);
+        dslQueries = new ArrayList<>();
+        for (Map<String, Object> request : BenchmarkInputs.dslRequests()) {
+            dslQueries.add(jsonToDslTranslator.translateToDsl(request));
+        }
+    }
+
+    @Benchmark
+    public void validateQuery() throws Exception {
+        for (String sql : translatedSql) {
+            validator.validateQuery(sql);
+        }
+    }
+
+    @Benchmark
+    public void parseFreshParserLl(Blackhole blackhole) {
+        for (String sql : translatedSql) {
+            PgRestParser parser = new PgRestParser(new CommonTokenStream(new PgRestLexer(CharStreams.fromString(sql))));
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            blackhole.consume(parser.query());
+        }
+    }
+
+    @Benchmark
+    public void visitPageQuery(Blackhole blackhole) {
+        for (ParameterizedQuery query : dslQueries) {
+            blackhole.consume(visit(query, false));
+        }
+    }
+
+    @Benchmark
+    public void visitCountQuery(Blackhole blackhole) {
+        for (ParameterizedQuery query : dslQueries) {
+            blackhole.consume(visit(query, true));
+        }
+    }
+
+    private String visit(ParameterizedQuery query, boolean countQuery) {
+        PgRestParser parser = new PgRestParser(new CommonTokenStream(new PgRestLexer(CharStreams.fromString(query.getSql()))));
+        return new SqlDslVisitor(countQuery, query.getParameters()).visit(parser.query());
+    }
+}
@@ -0,0 +1,89 @@
+package com.api.pg.bench.baseline;
+
+import com.api.pg.schema.SchemaCatalog;
+import com.api.query.PgRestBaseListener;
+import com.api.query.PgRestParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PostgresSQLCustomListener extends PgRestBaseListener {
+
+    private SchemaCatalog schemaCatalog;
+    private String tableName;
+
+    // Table behind every alias (or unaliased table name) introduced by FROM and JOIN
+    private final Map<String, String> tablesByAlias = new HashMap<>();
+
+    // The SELECT list is walked before FROM, so its columns are checked once the tables are known
+    private final List<PgRestParser.ColumnContext> selectedColumns = new ArrayList<>();
+
+    public PostgresSQLCustomListener(SchemaCatalog schemaCatalog) {
+        this.schemaCatalog = schemaCatalog;
+    }
+
+    @Override
+    public void enterSelectList(PgRestParser.SelectListContext ctx) {
+        selectedColumns.addAll(ctx.column());
+    }
+
+    @Override
+    public void enterFromClause(PgRestParser.FromClauseContext ctx) {
+        tableName = register(ctx.tableName());
+        if (!schemaCatalog.isTableAllowed(tableName)) {
+            throw new IllegalArgumentException("Table " + tableName + " is not allowed.");
+        }
+    }
+
+    // Triggered when entering a JOIN clause, checks if the joining table is allowed
+    @Override
+    public void enterJoinClause(PgRestParser.JoinClauseContext ctx) {
+        String joinTable = register(ctx.tableName());
+        if (!schemaCatalog.isTableAllowed(joinTable)) {
+            throw new IllegalArgumentException("Joining table " + joinTable + " is not allowed.");
+        }
+    }
+
+    // Validates both regular columns and JSONB fields of the SELECT list against the table they belong to
+    @Override
+    public void exitQuery(PgRestParser.QueryContext ctx) {
+        for (PgRestParser.ColumnContext column : selectedColumns) {
+            PgRestParser.RegularColumnContext regularColumn = column.jsonbColumn() != null
+                    ? column.jsonbColumn().regularColumn()
+                    : column.regularColumn();
+            String table = tableName;
+            if (regularColumn.ID().size() == 2) {
+                table = tablesByAlias.get(regularColumn.ID(0).getText());
+                if (table == null) {
+                    throw new IllegalArgumentException("Unknown table alias " + regularColumn.ID(0).getText());
+                }
+            }
+            String field = regularColumn.ID(regularColumn.ID().size() - 1).getText();
+
+            if (column.jsonbColumn() != null) {
+                field += column.jsonbColumn().jsonbAccess().getText();
+                if (!schemaCatalog.isJsonbFieldAllowed(table, field)) {
+                    throw new IllegalArgumentException("JSONB field " + field + " is not allowed for table " + table);
+                }
+            } else if (!schemaCatalog.isColumnAllowed(table, field)) {
+                throw new IllegalArgumentException("Column " + field + " is not allowed for table " + table);
+            }
+        }
+    }
+
+    // Returns the (schema-qualified, when written so) table name and records it under its alias
+    private String register(PgRestParser.TableNameContext ctx) {
+        boolean qualified = ctx.getChildCount() > 1 && ".".equals(ctx.getChild(1).getText());
+        int tableIndex = qualified ? 1 : 0;
+        String table = qualified
+                ? ctx.ID(0).getText() + "." + ctx.ID(1).getText()
+                : ctx.ID(0).getText();
+        String alias = ctx.ID().size() > tableIndex + 1
+                ? ctx.ID(tableIndex + 1).getText()
+                : ctx.ID(tableIndex).getText();
+        tablesByAlias.put(alias, table);
+        return table;
+    }
+}
@@ -0,0 +1,131 @@
+package com.api.pg.bench.baseline;
+
+import com.api.pg.schema.SchemaCatalog;
+import com.api.query.PgRestLexer;
+import com.api.query.PgRestParser;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The ANTLR validation the API ran on translated SQL before requests were compiled from a query AST,
+ * kept as the baseline the translation benchmarks compare against.
+ * The API no longer lexes or parses SQL, so its validation shape cache and two-stage SLL/LL parse
+ * only run here, where they are the optimized variants of this baseline.
+ */
+public class PostgresSQLValidator {
+
+    private static final int DEFAULT_SHAPE_CACHE_SIZE = 1024;
+
+    // Representative queries covering every grammar branch; parsed by warmUp() so the DFA that
+    // ANTLR shares across all PgRestParser instances is populated before the first real query.
+    // The DFA is static, so only the first validator in a JVM needs to warm it up.
+    private static final List<String> WARM_UP_QUERIES = Arrays.asList(
+            "SELECT id, name FROM users WHERE age > ? AND name = ? ORDER BY name ASC LIMIT ? OFFSET ?",
+            "SELECT u.id, u.data->>'name' AS name FROM public.users u INNER JOIN orders o ON u.id = o.user_id WHERE o.amount >= 10",
+            "SELECT id FROM users WHERE (name, id) > (?, ?) ORDER BY name DESC, id DESC LIMIT ?",
+            "SELECT data->>'name' FROM users WHERE data->>'name' = 'x' LIMIT 10;");
+
+    // Lexer and parser are reused per thread and reset for each query instead of being rebuilt
+    private static final ThreadLocal<ParserHolder> PARSERS = ThreadLocal.withInitial(ParserHolder::new);
+
+    private static final AtomicBoolean WARMED_UP = new AtomicBoolean();
+
+    // Remembers query shapes that already passed validation so they skip lexing and parsing
+    private final ValidationShapeCache shapeCache;
+
+    private final SchemaCatalog schemaCatalog;
+
+    public PostgresSQLValidator(SchemaCatalog schemaCatalog) {
+        this(schemaCatalog, DEFAULT_SHAPE_CACHE_SIZE);
+    }
+
+    // A shape cache size of 0 disables caching
+    public PostgresSQLValidator(SchemaCatalog schemaCatalog, int shapeCacheSize) {
+        this.schemaCatalog = schemaCatalog;
+        this.shapeCache = new ValidationShapeCache(shapeCacheSize);
+        if (WARMED_UP.compareAndSet(false, true)) {
+            warmUp();
+        }
+    }
+
+    public boolean isTableAllowed(String tableName) {
+        // Check if the table is allowed
+        if (!schemaCatalog.isTableAllowed(tableName)) {
+            throw new IllegalArgumentException("Table " + tableName + " is not allowed.");
+        }
+        return true;
+    }
+
+    public void validateQuery(String query) throws Exception {
+        // Literal values never affect the outcome, so a shape validated against the
+        // current allowlist is known to be valid for any literals
+        String shape = ValidationShapeCache.normalize(query);
+        long allowlistVersion = schemaCatalog.getVersion();
+        if (shapeCache.isValidated(shape, allowlistVersion)) {
+            return;
+        }
+
+        ParseTree tree = parse(query);
+        ParseTreeWalker walker = new ParseTreeWalker();
+
+        PostgresSQLCustomListener listener = new PostgresSQLCustomListener(schemaCatalog);
+        walker.walk(listener, tree);
+
+        // Only reached when the listener accepted every table and column
+        shapeCache.markValidated(shape, allowlistVersion);
+    }
+
+    public ValidationShapeCache getShapeCache() {
+        return shapeCache;
+    }
+
+    private static void warmUp() {
+        for (String query : WARM_UP_QUERIES) {
+            parse(query);
+        }
+    }
+
+    // Two-stage parse: SLL prediction is much cheaper and succeeds for almost every valid query.
+    // Only when it fails is the input re-parsed with full LL and the default error strategy,
+    // which gives the same result and error reporting as a plain LL parse.
+    static ParseTree parse(String query) {
+        ParserHolder holder = PARSERS.get();
+        holder.lexer.setInputStream(CharStreams.fromString(query));
+        holder.tokens.setTokenSource(holder.lexer);
+        PgRestParser parser = holder.parser;
+        parser.setTokenStream(holder.tokens);
+
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(holder.bailStrategy);
+        parser.removeErrorListeners();
+        try {
+            return parser.query();
+        } catch (ParseCancellationException e) {
+            holder.tokens.seek(0);
+            parser.reset();
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            parser.setErrorHandler(holder.defaultStrategy);
+            parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+            return parser.query();
+        }
+    }
+
+    private static final class ParserHolder {
+        final PgRestLexer lexer = new PgRestLexer(CharStreams.fromString(""));
+        final CommonTokenStream tokens = new CommonTokenStream(lexer);
+        final PgRestParser parser = new PgRestParser(tokens);
+        final BailErrorStrategy bailStrategy = new BailErrorStrategy();
+        final DefaultErrorStrategy defaultStrategy = new DefaultErrorStrategy();
+    }
+}
@@ -1,22 +1,22 @@
-package com.api.pg.validator;
 
-package com.example.validation;
+package com.api.pg.bench.baseline;
 
-import com.example.config.TableConfig;
-import org.springframework.stereotype.Component;
+import com.api.pg.schema.SchemaCatalog;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.HashMap;
 
-@Component
+/**
+ * The alias/column check for DSL requests from before QueryCompiler validated every column against
+ * the schema catalog, kept as a baseline for the translation benchmarks.
+ */
 public class QueryValidator {
 
-    private final TableConfig tableConfig;
+    private final SchemaCatalog schemaCatalog;
 
-    public QueryValidator(TableConfig tableConfig) {
-        this.tableConfig = tableConfig;
+    public QueryValidator(SchemaCatalog schemaCatalog) {
+        this.schemaCatalog = schemaCatalog;
     }
 
     /**
@@ -51,8 +51,7 @@ public class QueryValidator {
             }
 
             // Validate the column name for the real table
-            TableConfig.TableInfo tableInfo = tableConfig.getName().get(realTable);
-            if (tableInfo == null || !Set.of(tableInfo.getColumns()).contains(columnName)) {
+            if (!schemaCatalog.isColumnAllowed(realTable, columnName)) {
                 // Invalid column for the table
                 return false;
             }
@@ -1,5 +1,5 @@
 
-package com.api.pg.validator;
+package com.api.pg.bench.baseline;
 
 import com.api.query.PgRestBaseVisitor;
 import com.api.query.PgRestParser;
@@ -13,8 +13,17 @@ public class SqlDslVisitor extends PgRestBaseVisitor<String> {
     private List<Object> parameters = new ArrayList<>();
     private boolean isCountQuery = false;  // Flag to control count query behavior
 
+    // Values already bound to '?' placeholders in the input, consumed in order as placeholders are visited
+    private final List<Object> boundParameters;
+    private int boundIndex = 0;
+
     public SqlDslVisitor(boolean isCountQuery) {
+        this(isCountQuery, new ArrayList<>());
+    }
+
+    public SqlDslVisitor(boolean isCountQuery, List<Object> boundParameters) {
         this.isCountQuery = isCountQuery;
+        this.boundParameters = boundParameters;
     }
     @Override
     public String visitQuery(PgRestParser.QueryContext ctx) {
@@ -130,13 +139,21 @@ public class SqlDslVisitor extends PgRestBaseVisitor<String> {
     // Visit the LIMIT clause (skip if it's a count query)
     @Override
     public String visitLimitClause(PgRestParser.LimitClauseContext ctx) {
-        return !isCountQuery ? "LIMIT " + ctx.NUMBER().getText() : "";
+        if (isCountQuery) {
+            return "";
+        }
+        addParameter(ctx.NUMBER() != null ? Long.valueOf(ctx.NUMBER().getText()) : nextBoundParameter());
+        return "LIMIT ?";
     }
 
     // Visit the OFFSET clause (skip if it's a count query)
     @Override
     public String visitOffsetClause(PgRestParser.OffsetClauseContext ctx) {
-        return !isCountQuery ? "OFFSET " + ctx.NUMBER().getText() : "";
+        if (isCountQuery) {
+            return "";
+        }
+        addParameter(ctx.NUMBER() != null ? Long.valueOf(ctx.NUMBER().getText()) : nextBoundParameter());
+        return "OFFSET ?";
     }
 
     // Visit a column (regular or JSONB column) with optional alias
@@ -170,7 +187,59 @@ public class SqlDslVisitor extends PgRestBaseVisitor<String> {
     // Visit a condition (for JOIN or WHERE clauses), handles both sides of the condition
     @Override
     public String visitCondition(PgRestParser.ConditionContext ctx) {
-        return visit(ctx.column(0)) + " " + ctx.OPERATOR().getText() + " " + visit(ctx.column(1));
+        if (ctx.rowComparison() != null) {
+            return visit(ctx.rowComparison());
+        }
+        String right = ctx.value() != null ? visit(ctx.value()) : visit(ctx.column(1));
+        return visit(ctx.column(0)) + " " + ctx.OPERATOR().getText() + " " + right;
+    }
+
+    // Visit a row-value comparison, e.g. (created_at, id) > (?, ?)
+    @Override
+    public String visitRowComparison(PgRestParser.RowComparisonContext ctx) {
+        StringBuilder columns = new StringBuilder();
+        for (int i = 0; i < ctx.column().size(); i++) {
+            columns.append(i > 0 ? ", " : "").append(visit(ctx.column(i)));
+        }
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < ctx.value().size(); i++) {
+            values.append(i > 0 ? ", " : "").append(visit(ctx.value(i)));
+        }
+        return "(" + columns + ") " + ctx.OPERATOR().getText() + " (" + values + ")";
+    }
+
+    // Visit the ORDER BY clause with one or more sort keys
+    @Override
+    public String visitOrderClause(PgRestParser.OrderClauseContext ctx) {
+        StringBuilder orderClause = new StringBuilder("ORDER BY ");
+        for (int i = 0; i < ctx.orderItem().size(); i++) {
+            PgRestParser.OrderItemContext item = ctx.orderItem(i);
+            orderClause.append(i > 0 ? ", " : "").append(visit(item.column()));
+            if (item.DESC() != null) {
+                orderClause.append(" DESC");
+            } else if (item.ASC() != null) {
+                orderClause.append(" ASC");
+            }
+        }
+        return orderClause.toString();
+    }
+
+    // Visit a literal value; literals and existing placeholders become bind parameters
+    @Override
+    public String visitValue(PgRestParser.ValueContext ctx) {
+        if (ctx.PARAM() != null) {
+            addParameter(nextBoundParameter());
+        } else if (ctx.STRING() != null) {
+            addParameter(unquote(ctx.STRING().getText()));
+        } else if (ctx.NUMBER() != null) {
+            addParameter(Long.valueOf(ctx.NUMBER().getText()));
+        } else if (ctx.BOOLEAN() != null) {
+            addParameter(Boolean.valueOf(ctx.BOOLEAN().getText()));
+        } else {
+            // Identifiers and JSONB object literals are structural, keep them in the query text
+            return ctx.getText();
+        }
+        return "?";
     }
 
     @Override
@@ -188,4 +257,21 @@ public class SqlDslVisitor extends PgRestBaseVisitor<String> {
     public List<Object> getParameters() {
         return parameters;
     }
+
+    private void addParameter(Object value) {
+        parameters.add(value);
+    }
+
+    private Object nextBoundParameter() {
+        if (boundIndex >= boundParameters.size()) {
+            throw new IllegalArgumentException("Missing value for bind parameter " + (boundIndex + 1));
+        }
+        return boundParameters.get(boundIndex++);
+    }
+
+    // Strip the surrounding quotes and unescape backslash escapes of a STRING token
+    private static String unquote(String literal) {
+        String body = literal.substring(1, literal.length() - 1);
+        return body.replaceAll("\\\\(.)", "$1");
+    }
 }
@@ -0,0 +1,120 @@
+package com.api.pg.bench.baseline;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded LRU cache of query shapes that already passed validation.
+ * A shape is the query text with string and numeric literals replaced by typed markers,
+ * so requests that differ only in literal values share one entry. Each entry remembers
+ * the allowlist version it was validated against; a newer allowlist turns it into a miss.
+ */
+public class ValidationShapeCache {
+
+    // A string literal (group 3), optionally preceded by a JSONB operator (group 1), or a bare number (group 4).
+    // Strings after a JSONB operator name a JSONB key, which is part of what the allowlist checks,
+    // so those are kept verbatim. Matching both in one pass keeps digits inside strings untouched.
+    private static final Pattern LITERAL = Pattern.compile("(->>|->|#>>|@>)?(\\s*)('(?:[^'\\\\]|\\\\.)*')|\\b([0-9]+)\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Long> validatedShapes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ValidationShapeCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        // Access-ordered map so the eldest entry is always the least recently used one
+        this.validatedShapes = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > ValidationShapeCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Strips literal values so that only the structure of the query remains.
+    // Strings and numbers get different markers because the grammar accepts them in different places.
+    public static String normalize(String query) {
+        Matcher matcher = LITERAL.matcher(query);
+        StringBuffer shape = new StringBuffer();
+        while (matcher.find()) {
+            String replacement;
+            if (matcher.group(4) != null) {
+                replacement = "$n";
+            } else if (matcher.group(1) != null) {
+                replacement = matcher.group();
+            } else {
+                replacement = matcher.group(2) + "$s";
+            }
+            matcher.appendReplacement(shape, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(shape);
+
+        return WHITESPACE.matcher(shape.toString().trim()).replaceAll(" ");
+    }
+
+    // Returns true if the shape was validated against the given allowlist version
+    public boolean isValidated(String shape, long allowlistVersion) {
+        Long version;
+        synchronized (validatedShapes) {
+            version = validatedShapes.get(shape);
+        }
+        if (version != null && version == allowlistVersion) {
+            hits.incrementAndGet();
+            return true;
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    public void markValidated(String shape, long allowlistVersion) {
+        synchronized (validatedShapes) {
+            validatedShapes.put(shape, allowlistVersion);
+        }
+    }
+
+    public void clear() {
+        synchronized (validatedShapes) {
+            validatedShapes.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (validatedShapes) {
+            return validatedShapes.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", getHits());
+        stats.put("misses", getMisses());
+        stats.put("evictions", getEvictions());
+        return stats;
+    }
+}
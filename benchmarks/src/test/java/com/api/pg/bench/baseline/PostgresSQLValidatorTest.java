@@ -0,0 +1,69 @@
+package com.api.pg.bench.baseline;
+
+import com.api.pg.schema.SchemaCatalog;
+import com.api.query.PgRestLexer;
+import com.api.query.PgRestParser;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.tree.Trees;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgresSQLValidatorTest {
+
+    private static final List<String> RULE_NAMES = Arrays.asList(PgRestParser.ruleNames);
+
+    // What a new lexer and parser in full LL mode make of the query, as the validator did before the two-stage parse
+    private static String plainLlTree(String query) {
+        PgRestParser parser = new PgRestParser(new CommonTokenStream(new PgRestLexer(CharStreams.fromString(query))));
+        parser.removeErrorListeners();
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        return Trees.toStringTree(parser.query(), RULE_NAMES);
+    }
+
+    private static String twoStageTree(String query) {
+        return Trees.toStringTree(PostgresSQLValidator.parse(query), RULE_NAMES);
+    }
+
+    @Test
+    void constructionWarmsUpTheSharedDfa() {
+        new PostgresSQLValidator(SchemaCatalog.fromAllowlist(Collections.emptyMap()));
+
+        PgRestParser parser = new PgRestParser(new CommonTokenStream(new PgRestLexer(CharStreams.fromString(""))));
+        boolean warm = false;
+        for (DFA dfa : parser.getInterpreter().decisionToDFA) {
+            warm |= !dfa.states.isEmpty();
+        }
+        assertTrue(warm);
+    }
+
+    @Test
+    void twoStageParseGivesThePlainLlTree() {
+        List<String> queries = Arrays.asList(
+                "SELECT id, name FROM users WHERE age > ? AND name = 'Bob' ORDER BY name ASC LIMIT 10 OFFSET ?",
+                "SELECT u.id, u.data->>'name' AS name FROM public.users u INNER JOIN orders o ON u.id = o.user_id",
+                "SELECT id FROM users WHERE (name, id) > (?, ?) ORDER BY name DESC, id DESC LIMIT ?;");
+        for (String query : queries) {
+            assertEquals(plainLlTree(query), twoStageTree(query), query);
+        }
+    }
+
+    @Test
+    void syntaxErrorsFallBackToLlAndLeaveTheParserReusable() {
+        // SLL bails on the missing condition; the LL retry recovers exactly like a plain LL parse
+        String broken = "SELECT id FROM users WHERE LIMIT 10";
+        assertEquals(plainLlTree(broken), twoStageTree(broken));
+
+        // The reused per-thread parser is reset for the next query
+        String valid = "SELECT id FROM users WHERE age > 30";
+        assertEquals(plainLlTree(valid), twoStageTree(valid));
+    }
+}
@@ -0,0 +1,90 @@
+package com.api.pg.bench.baseline;
+
+import com.api.pg.schema.SchemaCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationShapeCacheTest {
+
+    private static SchemaCatalog catalog() {
+        Map<String, List<String>> users = new HashMap<>();
+        users.put("columns", Arrays.asList("id", "name", "age", "user_data"));
+        users.put("jsonb", Collections.singletonList("user_data->>'name'"));
+        Map<String, Map<String, List<String>>> allowlist = new HashMap<>();
+        allowlist.put("users", users);
+        return SchemaCatalog.fromAllowlist(allowlist);
+    }
+
+    @Test
+    void shapeReplacesLiteralsButKeepsJsonbKeys() {
+        assertEquals("SELECT id FROM users WHERE age > $n AND name = $s LIMIT $n",
+                ValidationShapeCache.normalize("SELECT id FROM users  WHERE age > 30 AND name = 'Bob 42' LIMIT 10"));
+        assertEquals("SELECT user_data->>'name' FROM users WHERE user_data->>'name' = $s",
+                ValidationShapeCache.normalize("SELECT user_data->>'name' FROM users WHERE user_data->>'name' = 'x'"));
+    }
+
+    @Test
+    void newerAllowlistVersionIsAMiss() {
+        ValidationShapeCache cache = new ValidationShapeCache(16);
+        cache.markValidated("SELECT id FROM users", 1);
+
+        assertTrue(cache.isValidated("SELECT id FROM users", 1));
+        assertFalse(cache.isValidated("SELECT id FROM users", 2));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedShape() {
+        ValidationShapeCache cache = new ValidationShapeCache(2);
+        cache.markValidated("a", 1);
+        cache.markValidated("b", 1);
+        cache.isValidated("a", 1);
+        cache.markValidated("c", 1);
+
+        assertTrue(cache.isValidated("a", 1));
+        assertFalse(cache.isValidated("b", 1));
+        assertTrue(cache.isValidated("c", 1));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void queriesDifferingOnlyInLiteralsShareOneValidation() throws Exception {
+        PostgresSQLValidator validator = new PostgresSQLValidator(catalog(), 16);
+        validator.validateQuery("SELECT id, user_data->>'name' FROM users WHERE age > 30 LIMIT 10");
+        validator.validateQuery("SELECT id, user_data->>'name' FROM users WHERE age > 65 LIMIT 20");
+
+        assertEquals(1, validator.getShapeCache().size());
+        assertEquals(1, validator.getShapeCache().getHits());
+    }
+
+    @Test
+    void rejectedQueriesAreNotCached() {
+        PostgresSQLValidator validator = new PostgresSQLValidator(catalog(), 16);
+
+        assertThrows(IllegalArgumentException.class, () -> validator.validateQuery("SELECT password FROM users"));
+        assertThrows(IllegalArgumentException.class, () -> validator.validateQuery("SELECT password FROM users"));
+        assertThrows(IllegalArgumentException.class, () -> validator.validateQuery("SELECT user_data->>'ssn' FROM users"));
+        assertEquals(0, validator.getShapeCache().size());
+    }
+
+    @Test
+    void zeroSizeDisablesCaching() throws Exception {
+        PostgresSQLValidator validator = new PostgresSQLValidator(catalog(), 0);
+        validator.validateQuery("SELECT id FROM users WHERE age > 30");
+        validator.validateQuery("SELECT id FROM users WHERE age > 30");
+
+        assertEquals(0, validator.getShapeCache().size());
+        assertEquals(0, validator.getShapeCache().getHits());
+    }
+}
@@ -0,0 +1,109 @@
+package com.api.pg;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes a batch of JSON query requests in parallel.
+ * Work runs on a shared pool sized below the JDBC connection pool, and each batch may only
+ * have {@code max-concurrency} items in flight, so one large batch cannot drain the pool.
+ * Every item gets its own result or error; one failing item never fails the batch.
+ */
+@Service
+public class BatchQueryService {
+
+    @Autowired
+    private QueryTranslator queryTranslator;
+
+    @Autowired
+    private QueryExecutionService queryExecutionService;
+
+    @Value("${query.batch.max-items:100}")
+    private int maxItems;
+
+    @Value("${query.batch.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${query.batch.pool-size:8}")
+    private int poolSize;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "batch-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public List<Map<String, Object>> executeBatch(List<Map<String, Object>> requests) throws InterruptedException {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one query.");
+        }
+        if (requests.size() > maxItems) {
+            throw new IllegalArgumentException("Batch contains " + requests.size() + " queries, the maximum is " + maxItems + ".");
+        }
+
+        // Caps this batch's in-flight items; the caller blocks here until a slot frees up
+        Semaphore slots = new Semaphore(maxConcurrency);
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            int index = i;
+            Map<String, Object> request = requests.get(i);
+            slots.acquire();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return executeItem(index, request);
+                } finally {
+                    slots.release();
+                }
+            }, executor));
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (CompletableFuture<Map<String, Object>> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    // Translates, validates and executes one item, mapping failures the same way /execute does
+    private Map<String, Object> executeItem(int index, Map<String, Object> request) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("index", index);
+        try {
+            ParameterizedQuery query = queryTranslator.translateAndValidateQuery(request);
+            List<Map<String, Object>> rows = queryExecutionService.executeQuery(query);
+            item.put("status", 200);
+            item.put("result", QueryController.toResponseBody(query, rows));
+        } catch (IllegalArgumentException e) {
+            item.put("status", 400);
+            item.put("error", "Error: " + e.getMessage());
+        } catch (Exception e) {
+            item.put("status", 500);
+            item.put("error", "Error: " + e.getMessage());
+        }
+        return item;
+    }
+}
@@ -0,0 +1,119 @@
+package com.api.pg;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Writes query results in the columnar layout: {@code {"columns": [...], "rows": [[...], ...]}}
+ * followed by optional trailing fields (next_cursor, total). Column names are written once instead
+ * of once per row. The output format follows the ObjectMapper's factory, so the same writer
+ * produces JSON or MessagePack.
+ */
+public class ColumnarResultWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public ColumnarResultWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // Encodes the remaining rows of the ResultSet without building row maps.
+    // Only the last row is kept, to derive the keyset continuation token. Returns the number of rows.
+    public long write(ResultSet resultSet, OutputStream out, KeysetPagination keyset,
+                      Supplier<Map<String, Object>> trailer) throws SQLException, IOException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        String[] labels = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+
+        long rows = 0;
+        Object[] values = new Object[columnCount];
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("columns");
+            for (String label : labels) {
+                generator.writeString(label);
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("rows");
+            while (resultSet.next()) {
+                generator.writeStartArray();
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = resultSet.getObject(i + 1);
+                    generator.writeObject(values[i]);
+                }
+                generator.writeEndArray();
+                rows++;
+            }
+            generator.writeEndArray();
+
+            Map<String, Object> lastRow = null;
+            if (keyset != null && rows > 0) {
+                lastRow = new LinkedHashMap<>();
+                for (int i = 0; i < columnCount; i++) {
+                    lastRow.put(labels[i], values[i]);
+                }
+            }
+            writeTrailer(generator, keyset, lastRow, rows, trailer);
+            generator.writeEndObject();
+        }
+        return rows;
+    }
+
+    // Encodes rows that are already materialized, e.g. served from the result cache
+    public void write(List<Map<String, Object>> rows, OutputStream out, KeysetPagination keyset) throws IOException {
+        List<String> columns = rows.isEmpty()
+                ? Collections.emptyList()
+                : new ArrayList<>(rows.get(0).keySet());
+
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeObjectField("columns", columns);
+            generator.writeArrayFieldStart("rows");
+            for (Map<String, Object> row : rows) {
+                generator.writeStartArray();
+                for (String column : columns) {
+                    generator.writeObject(row.get(column));
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            writeTrailer(generator, keyset, rows.isEmpty() ? null : rows.get(rows.size() - 1), rows.size(), null);
+            generator.writeEndObject();
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // The caller owns the stream
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private void writeTrailer(JsonGenerator generator, KeysetPagination keyset, Map<String, Object> lastRow,
+                              long rows, Supplier<Map<String, Object>> trailer) throws IOException {
+        if (keyset != null) {
+            generator.writeObjectField("next_cursor", keyset.nextToken(lastRow, rows));
+        }
+        if (trailer != null) {
+            for (Map.Entry<String, Object> field : trailer.get().entrySet()) {
+                generator.writeObjectField(field.getKey(), field.getValue());
+            }
+        }
+    }
+}
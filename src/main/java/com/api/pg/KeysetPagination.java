@@ -0,0 +1,191 @@
+package com.api.pg;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keyset (seek) pagination for a single page request.
+ * Instead of LIMIT/OFFSET, the page continues after the last row of the previous page:
+ * the client gets an opaque continuation token holding that row's sort-key values, and the
+ * next request turns it into a {@code (sort_cols) > (...)} predicate. PostgreSQL can then
+ * seek straight to the page through an index, so latency does not grow with page depth.
+ */
+public class KeysetPagination {
+
+    private static final ObjectMapper TOKEN_MAPPER = new ObjectMapper();
+
+    private final List<String> sortColumns;
+    private final boolean descending;
+    private final int limit;
+
+    public KeysetPagination(List<String> sortColumns, boolean descending, int limit) {
+        if (sortColumns.isEmpty()) {
+            throw new IllegalArgumentException("Keyset pagination requires at least one sort column.");
+        }
+        this.sortColumns = sortColumns;
+        this.descending = descending;
+        this.limit = limit;
+    }
+
+    // Builds the sort columns for a keyset page: the requested sort column followed by the
+    // table's tiebreaker, which makes the order total so no row is skipped or repeated
+    public static List<String> sortColumns(String sortColumn, String tiebreakerColumn) {
+        if (tiebreakerColumn == null) {
+            throw new IllegalArgumentException("Keyset pagination is not enabled for this table: no key column configured.");
+        }
+        List<String> columns = new ArrayList<>();
+        if (sortColumn != null && !sortColumn.equals(tiebreakerColumn)) {
+            columns.add(sortColumn);
+        }
+        columns.add(tiebreakerColumn);
+        return columns;
+    }
+
+    public List<String> getSortColumns() {
+        return sortColumns;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    // Returns the token for the page after the given rows, or null when this was the last page
+    public String nextToken(List<Map<String, Object>> rows) {
+        return nextToken(rows.isEmpty() ? null : rows.get(rows.size() - 1), rows.size());
+    }
+
+    // Same as nextToken(rows) for writers that stream rows and only keep the last one
+    public String nextToken(Map<String, Object> lastRow, long rowCount) {
+        if (rowCount < limit || lastRow == null) {
+            return null;
+        }
+        List<Object> values = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        for (String column : sortColumns) {
+            Object value = lastRow.get(resultLabel(column));
+            types.add(tokenType(value));
+            values.add(toTokenValue(value));
+        }
+        return encodeToken(values, types);
+    }
+
+    // Result sets are keyed by the bare column name, without a table alias
+    public static String resultLabel(String column) {
+        return column.substring(column.lastIndexOf('.') + 1);
+    }
+
+    private String encodeToken(List<Object> values, List<String> types) {
+        Map<String, Object> token = new HashMap<>();
+        token.put("k", sortColumns);
+        token.put("v", values);
+        token.put("t", types);
+        try {
+            byte[] json = TOKEN_MAPPER.writeValueAsBytes(token);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to encode continuation token", e);
+        }
+    }
+
+    // Returns the sort-key values of the last row of the previous page, one per sort column
+    public List<Object> decodeToken(String token) {
+        Map<String, Object> decoded;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token.getBytes(StandardCharsets.US_ASCII));
+            decoded = TOKEN_MAPPER.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid continuation token.");
+        }
+
+        // A token is only valid for the sort it was issued for
+        List<Object> values = (List<Object>) decoded.get("v");
+        if (!sortColumns.equals(decoded.get("k")) || values == null || values.size() != sortColumns.size()) {
+            throw new IllegalArgumentException("Continuation token does not match the requested sort.");
+        }
+        List<String> types = (List<String>) decoded.get("t");
+        if (types == null) {
+            return values;
+        }
+        if (types.size() != values.size()) {
+            throw new IllegalArgumentException("Invalid continuation token.");
+        }
+        List<Object> typedValues = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            typedValues.add(fromTokenValue(values.get(i), types.get(i)));
+        }
+        return typedValues;
+    }
+
+    // Integers, doubles, booleans and strings survive JSON as they are (type null). Anything else travels as
+    // its text form with a type, so NUMERIC keys keep their precision and timestamps bind as timestamps.
+    private static String tokenType(Object value) {
+        if (value == null || value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Double || value instanceof Float || value instanceof Boolean || value instanceof String) {
+            return null;
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return "numeric";
+        } else if (value instanceof Timestamp) {
+            return "timestamp";
+        } else if (value instanceof Date) {
+            return "date";
+        } else if (value instanceof LocalDateTime) {
+            return "local_date_time";
+        } else if (value instanceof OffsetDateTime) {
+            return "offset_date_time";
+        } else if (value instanceof LocalDate) {
+            return "local_date";
+        } else if (value instanceof UUID) {
+            return "uuid";
+        }
+        return "text";
+    }
+
+    private static Object toTokenValue(Object value) {
+        if (tokenType(value) == null) {
+            return value;
+        }
+        return value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+    }
+
+    private static Object fromTokenValue(Object value, String type) {
+        if (type == null || value == null) {
+            return value;
+        }
+        String text = value.toString();
+        try {
+            switch (type) {
+                case "numeric": return new BigDecimal(text);
+                case "timestamp": return Timestamp.valueOf(text);
+                case "date": return Date.valueOf(text);
+                case "local_date_time": return LocalDateTime.parse(text);
+                case "offset_date_time": return OffsetDateTime.parse(text);
+                case "local_date": return LocalDate.parse(text);
+                case "uuid": return UUID.fromString(text);
+                case "text": return text;
+                default: throw new IllegalArgumentException("Invalid continuation token.");
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid continuation token.");
+        }
+    }
+}
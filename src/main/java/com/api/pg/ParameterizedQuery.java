@@ -0,0 +1,71 @@
+package com.api.pg;
+
+import com.api.pg.schema.SchemaCatalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A SQL template with {@code ?} placeholders and the values to bind to them, in order.
+ * Requests that differ only in their values produce the same template, so PostgreSQL and
+ * pgjdbc can reuse one prepared statement and plan for all of them.
+ */
+public class ParameterizedQuery {
+
+    private final String sql;
+    private final List<Object> parameters;
+
+    // Set when the query returns a keyset page, so the caller can issue the next continuation token
+    private final KeysetPagination keyset;
+
+    // Tables the query reads from, used for table-scoped cache invalidation
+    private final Set<String> tables;
+
+    // Allowlist the query was compiled against; its table settings (cache TTL, staleness) apply to it
+    private final SchemaCatalog catalog;
+
+    public ParameterizedQuery(String sql, List<Object> parameters) {
+        this(sql, parameters, null, Collections.emptySet(), null);
+    }
+
+    public ParameterizedQuery(String sql, List<Object> parameters, KeysetPagination keyset, Set<String> tables,
+                              SchemaCatalog catalog) {
+        this.sql = sql;
+        this.parameters = parameters != null ? Collections.unmodifiableList(new ArrayList<>(parameters)) : Collections.emptyList();
+        this.keyset = keyset;
+        this.tables = Collections.unmodifiableSet(tables);
+        this.catalog = catalog;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    public KeysetPagination getKeyset() {
+        return keyset;
+    }
+
+    public Set<String> getTables() {
+        return tables;
+    }
+
+    // Null for queries not compiled from a request
+    public SchemaCatalog getCatalog() {
+        return catalog;
+    }
+
+    public Object[] getParameterArray() {
+        return parameters.toArray();
+    }
+
+    @Override
+    public String toString() {
+        return sql + " " + parameters;
+    }
+}
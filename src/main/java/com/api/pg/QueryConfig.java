@@ -8,25 +8,12 @@ import java.util.List;
 @Component
 public class QueryConfig {
 
-    // Load allowed tables and their columns and jsonb fields
+    // Load allowed tables and their columns, jsonb fields and key column.
+    // Lookups go through the SchemaCatalog, which is built from this allowlist at startup.
     @Value("#{${query.allowed-tables}}")
     private Map<String, Map<String, List<String>>> allowedTables;
 
     public Map<String, Map<String, List<String>>> getAllowedTables() {
         return allowedTables;
     }
-
-    public boolean isTableAllowed(String tableName) {
-        return allowedTables.containsKey(tableName);
-    }
-
-    public boolean isColumnAllowed(String tableName, String columnName) {
-        List<String> allowedColumns = allowedTables.get(tableName).get("columns");
-        return allowedColumns != null && allowedColumns.contains(columnName);
-    }
-
-    public boolean isJsonbFieldAllowed(String tableName, String jsonbField) {
-        List<String> allowedJsonbFields = allowedTables.get(tableName).get("jsonb");
-        return allowedJsonbFields != null && allowedJsonbFields.contains(jsonbField);
-    }
 }
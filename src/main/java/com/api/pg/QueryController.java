@@ -1,11 +1,21 @@
 package com.api.pg;
+import com.api.pg.metrics.CountingOutputStream;
+import com.api.pg.metrics.QueryMetrics;
+import com.api.pg.metrics.QueryPhase;
+import com.api.pg.metrics.QueryTimings;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/query")
@@ -17,20 +27,173 @@ public class QueryController {
     @Autowired
     private QueryExecutionService queryExecutionService;
 
+    @Autowired
+    private BatchQueryService batchQueryService;
+
+    @Autowired
+    private QueryExportService queryExportService;
+
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/execute")
-    public ResponseEntity<?> executeQuery(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> executeQuery(@RequestBody Map<String, Object> request,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        QueryTimings timings = queryMetrics.start("execute");
+        String outcome = "error";
         try {
+            ResultFormat format = ResultFormat.fromAccept(accept);
+
             // Translate and validate query
-            String query = queryTranslator.translateAndValidateQuery(request);
+            ParameterizedQuery query = queryTranslator.translateAndValidateQuery(request);
+            queryMetrics.describe(timings, query);
+
+            // Columnar formats are encoded from the ResultSet instead of going through row maps
+            if (format != ResultFormat.JSON) {
+                byte[] body = queryExecutionService.executeQuery(query, format);
+                timings.setBytes(body.length);
+                outcome = "success";
+                return ResponseEntity.ok().contentType(format.getMediaType()).body(body);
+            }
 
             // Execute the query
             List<Map<String, Object>> result = queryExecutionService.executeQuery(query);
+            timings.setRows(result.size());
+
+            // Serialized here rather than by the message converter so its time and size are measured
+            long serializeStart = System.nanoTime();
+            byte[] body = objectMapper.writeValueAsBytes(toResponseBody(query, result));
+            QueryTimings.record(QueryPhase.SERIALIZE, System.nanoTime() - serializeStart);
+            timings.setBytes(body.length);
+
+            outcome = "success";
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        } catch (IllegalArgumentException e) {
+            outcome = "client_error";
+            // Errors are plain text whatever format was accepted for results
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.TEXT_PLAIN)
+                    .body("Error: " + e.getMessage());
+        } finally {
+            queryMetrics.finish(timings, outcome);
+        }
+    }
+
+    // Executes an array of /execute requests in one round trip, returning one result or error per item
+    @PostMapping("/batch")
+    public ResponseEntity<?> executeBatch(@RequestBody List<Map<String, Object>> requests) {
+        try {
+            return ResponseEntity.ok(batchQueryService.executeBatch(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.TEXT_PLAIN)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    // Streams the result as a JSON array (format=json) or newline-delimited JSON (format=ndjson)
+    // without materializing the rows; heap use is bounded by the cursor fetch size
+    @PostMapping("/stream")
+    public ResponseEntity<?> streamQuery(@RequestBody Map<String, Object> request,
+                                         @RequestParam(value = "format", defaultValue = "json") String format) {
+        QueryTimings timings = queryMetrics.start("stream");
+        try {
+            boolean ndjson = "ndjson".equalsIgnoreCase(format);
+            if (!ndjson && !"json".equalsIgnoreCase(format)) {
+                throw new IllegalArgumentException("Unsupported stream format: " + format);
+            }
+
+            // Translate and validate before any bytes are written, so errors still map to a status code
+            ParameterizedQuery query = queryTranslator.translateAndValidateQuery(request);
+            queryMetrics.describe(timings, query);
+            timings.detach();
+
+            // The body is written on another thread; the timings follow it there
+            StreamingResponseBody body = out -> {
+                timings.attach();
+                String outcome = "error";
+                CountingOutputStream counted = new CountingOutputStream(out);
+                try {
+                    timings.setRows(queryExecutionService.streamQuery(query, counted, ndjson));
+                    outcome = "success";
+                } finally {
+                    timings.setBytes(counted.getCount());
+                    queryMetrics.finish(timings, outcome);
+                }
+            };
+            MediaType contentType = ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.APPLICATION_JSON;
+            return ResponseEntity.ok().contentType(contentType).body(body);
+        } catch (IllegalArgumentException e) {
+            queryMetrics.finish(timings, "client_error");
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            queryMetrics.finish(timings, "error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.TEXT_PLAIN)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    // Exports the whole result with COPY (format=csv|binary), optionally gzip-compressed, as a file download
+    @PostMapping("/export")
+    public ResponseEntity<?> exportQuery(@RequestBody Map<String, Object> request,
+                                         @RequestParam(value = "format", defaultValue = "csv") String format,
+                                         @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        QueryTimings timings = queryMetrics.start("export");
+        try {
+            QueryExportService.Format exportFormat = QueryExportService.Format.of(format);
 
-            return ResponseEntity.ok(result);
+            // Translate and validate before any bytes are written, so errors still map to a status code
+            ParameterizedQuery query = queryTranslator.translateAndValidateQuery(request);
+            queryMetrics.describe(timings, query);
+            timings.detach();
+
+            // The body is written on another thread; the timings follow it there
+            StreamingResponseBody body = out -> {
+                timings.attach();
+                String outcome = "error";
+                CountingOutputStream counted = new CountingOutputStream(out);
+                try {
+                    if (gzip) {
+                        GZIPOutputStream gzipOut = new GZIPOutputStream(counted, 64 * 1024);
+                        timings.setRows(queryExportService.export(query, exportFormat, gzipOut));
+                        gzipOut.finish();
+                    } else {
+                        timings.setRows(queryExportService.export(query, exportFormat, counted));
+                    }
+                    outcome = "success";
+                } finally {
+                    timings.setBytes(counted.getCount());
+                    queryMetrics.finish(timings, outcome);
+                }
+            };
+            String fileName = "export." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+            return ResponseEntity.ok()
+                    .contentType(gzip ? MediaType.parseMediaType("application/gzip") : exportFormat.getMediaType())
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .body(body);
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+            queryMetrics.finish(timings, "client_error");
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Error: " + e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+            queryMetrics.finish(timings, "error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.TEXT_PLAIN)
+                    .body("Error: " + e.getMessage());
+        }
+    }
+
+    // Plain queries return the rows as before; keyset pages wrap them with the continuation token
+    static Object toResponseBody(ParameterizedQuery query, List<Map<String, Object>> rows) {
+        if (query.getKeyset() == null) {
+            return rows;
         }
+        Map<String, Object> body = new HashMap<>();
+        body.put("rows", rows);
+        body.put("next_cursor", query.getKeyset().nextToken(rows));
+        return body;
     }
 }
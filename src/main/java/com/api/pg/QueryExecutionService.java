@@ -1,8 +1,25 @@
 package com.api.pg;
 
+import com.api.pg.cache.QueryResultCache;
+import com.api.pg.metrics.QueryPhase;
+import com.api.pg.metrics.QueryTimings;
+import com.api.pg.routing.ReadContext;
+import com.api.pg.routing.ReadRouting;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.List;
 import java.util.Map;
 
@@ -12,7 +29,109 @@ public class QueryExecutionService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
-    public List<Map<String, Object>> executeQuery(String sql) {
-        return jdbcTemplate.queryForList(sql);
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    @Autowired
+    private ReadRouting readRouting;
+
+    // Number of rows pulled from the server-side cursor per round trip
+    @Value("${query.stream.fetch-size:1000}")
+    private int fetchSize;
+
+    // Runs the template as a prepared statement so identical shapes share pgjdbc's
+    // server-side prepared statement and PostgreSQL's cached plan.
+    // Queries that only read tables with a cache TTL are served from the result cache.
+    // All queries here are reads and may run on a replica within the tables' staleness budget.
+    public List<Map<String, Object>> executeQuery(ParameterizedQuery query) {
+        long ttlMillis = queryResultCache.ttlMillis(query);
+        if (ttlMillis <= 0) {
+            return queryForList(query);
+        }
+
+        List<Map<String, Object>> cached = queryResultCache.get(query);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = queryResultCache.currentInvalidationStamp();
+        List<Map<String, Object>> rows = queryForList(query);
+        return queryResultCache.put(query, rows, ttlMillis, stamp);
+    }
+
+    private List<Map<String, Object>> queryForList(ParameterizedQuery query) {
+        long start = System.nanoTime();
+        try (ReadContext ignored = readRouting.forQuery(query)) {
+            return jdbcTemplate.queryForList(query.getSql(), query.getParameterArray());
+        } finally {
+            QueryTimings.record(QueryPhase.EXECUTE, System.nanoTime() - start);
+        }
+    }
+
+    // Executes the query and encodes the result in a columnar format. Uncached results are encoded
+    // straight from the ResultSet; cacheable ones go through the result cache and are encoded from its rows.
+    public byte[] executeQuery(ParameterizedQuery query, ResultFormat format) {
+        ColumnarResultWriter writer = format.columnarWriter(objectMapper);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            if (queryResultCache.ttlMillis(query) > 0) {
+                List<Map<String, Object>> rows = executeQuery(query);
+                long start = System.nanoTime();
+                writer.write(rows, out, query.getKeyset());
+                QueryTimings.record(QueryPhase.SERIALIZE, System.nanoTime() - start);
+            } else {
+                // Rows are encoded as they are fetched, so encoding counts as execution here
+                long start = System.nanoTime();
+                try (ReadContext ignored = readRouting.forQuery(query)) {
+                    jdbcTemplate.query(query.getSql(), (ResultSetExtractor<Long>) resultSet -> {
+                        try {
+                            return writer.write(resultSet, out, query.getKeyset(), null);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, query.getParameterArray());
+                } finally {
+                    QueryTimings.record(QueryPhase.EXECUTE, System.nanoTime() - start);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Executes the query through a server-side cursor and writes rows straight to the output stream.
+    // pgjdbc only honours the fetch size when autocommit is off, so the query runs in its own
+    // read-only transaction on the checked-out connection.
+    public long streamQuery(ParameterizedQuery query, OutputStream out, boolean ndjson) {
+        ResultSetJsonWriter writer = new ResultSetJsonWriter(objectMapper, ndjson, fetchSize);
+
+        // Rows are written as they are fetched, so writing counts as execution here
+        long start = System.nanoTime();
+        try (ReadContext ignored = readRouting.forQuery(query)) {
+            return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try (PreparedStatement statement = connection.prepareStatement(query.getSql(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    new ArgumentPreparedStatementSetter(query.getParameterArray()).setValues(statement);
+                    statement.setFetchSize(fetchSize);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        return writer.write(resultSet, out);
+                    }
+                } catch (IOException e) {
+                    // Client went away or the response could not be written
+                    throw new UncheckedIOException(e);
+                } finally {
+                    // Nothing was modified; rollback just closes the cursor's transaction
+                    connection.rollback();
+                    connection.setAutoCommit(autoCommit);
+                }
+            });
+        } finally {
+            QueryTimings.record(QueryPhase.EXECUTE, System.nanoTime() - start);
+        }
     }
 }
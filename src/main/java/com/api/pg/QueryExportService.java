@@ -0,0 +1,89 @@
+package com.api.pg;
+
+import com.api.pg.ast.SqlLiterals;
+import com.api.pg.metrics.QueryPhase;
+import com.api.pg.metrics.QueryTimings;
+import com.api.pg.routing.ReadContext;
+import com.api.pg.routing.ReadRouting;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Bulk export through {@code COPY (query) TO STDOUT}. PostgreSQL formats the rows itself and
+ * pgjdbc's CopyManager hands the bytes straight to the output stream, so rows never become
+ * Java objects and the whole result is exported in one statement instead of page by page.
+ */
+@Service
+public class QueryExportService {
+
+    public enum Format {
+        CSV("FORMAT csv, HEADER true", MediaType.parseMediaType("text/csv"), "csv"),
+        BINARY("FORMAT binary", MediaType.APPLICATION_OCTET_STREAM, "bin");
+
+        private final String copyOptions;
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(String copyOptions, MediaType mediaType, String extension) {
+            this.copyOptions = copyOptions;
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + name);
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReadRouting readRouting;
+
+    // Runs the validated query as COPY ... TO STDOUT and returns the number of rows exported.
+    // COPY cannot take bind parameters, so the query's values are inlined as escaped literals.
+    public long export(ParameterizedQuery query, Format format, OutputStream out) {
+        // Exports are reads too and may run on a replica
+        long start = System.nanoTime();
+        try (ReadContext ignored = readRouting.forQuery(query)) {
+            return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                boolean standardConformingStrings = connection.unwrap(BaseConnection.class).getStandardConformingStrings();
+                String copySql = "COPY (" + SqlLiterals.inline(query, standardConformingStrings) + ") TO STDOUT WITH (" + format.copyOptions + ")";
+
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                try {
+                    return copyManager.copyOut(copySql, out);
+                } catch (IOException e) {
+                    // Client went away or the response could not be written
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } finally {
+            QueryTimings.record(QueryPhase.EXECUTE, System.nanoTime() - start);
+        }
+    }
+}
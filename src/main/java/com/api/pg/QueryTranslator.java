@@ -1,68 +1,104 @@
 package com.api.pg;
-import java.util.Map;
+import com.api.pg.ast.ColumnRef;
+import com.api.pg.ast.OrderItem;
+import com.api.pg.ast.Predicate;
+import com.api.pg.ast.QueryCompiler;
+import com.api.pg.ast.SelectQuery;
+import com.api.pg.ast.TableRef;
+import com.api.pg.metrics.QueryPhase;
+import com.api.pg.metrics.QueryTimings;
+import com.api.pg.schema.SchemaCatalog;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
 import java.util.List;
+import java.util.Map;
+@Component
 public class QueryTranslator {
 
-    private PostgresSQLValidator validator;
+    private SchemaCatalog schemaCatalog;
+    private QueryCompiler queryCompiler;
 
-    public QueryTranslator(PostgresSQLValidator validator) {
-        this.validator = validator;
+    public QueryTranslator(@Qualifier("querySchemaCatalog") SchemaCatalog schemaCatalog) {
+        this.schemaCatalog = schemaCatalog;
+        this.queryCompiler = new QueryCompiler(schemaCatalog);
     }
 
-    public String translateAndValidateQuery(Map<String, Object> request) throws Exception {
-        String query = buildQueryFromJson(request);
-
-        // Validate the translated query
-        validator.validateQuery(query);
+    // The request is mapped to the query AST once; the compiler checks it against the allowlist
+    // and renders the SQL template, so the result is not parsed again
+    public ParameterizedQuery translateAndValidateQuery(Map<String, Object> request) throws Exception {
+        long start = System.nanoTime();
+        SelectQuery query = buildQueryFromJson(request);
+        long translated = System.nanoTime();
+        QueryTimings.record(QueryPhase.TRANSLATE, translated - start);
 
-        return query;
+        ParameterizedQuery compiled = queryCompiler.compile(query);
+        QueryTimings.record(QueryPhase.VALIDATE, System.nanoTime() - translated);
+        return compiled;
     }
 
-    private String buildQueryFromJson(Map<String, Object> request) {
-        StringBuilder queryBuilder = new StringBuilder();
-
+    private SelectQuery buildQueryFromJson(Map<String, Object> request) {
         // Extract table name
         String table = (String) request.get("table");
-        if (!validator.isTableAllowed(table)) {
+        if (!schemaCatalog.isTableAllowed(table)) {
             throw new IllegalArgumentException("Table " + table + " is not allowed.");
         }
+        SelectQuery query = new SelectQuery().from(new TableRef(table, null));
 
-        // Extract and append fields
+        // Extract fields
         List<String> fields = (List<String>) request.get("fields");
-        String fieldString = String.join(", ", fields);
-        queryBuilder.append("SELECT ").append(fieldString).append(" FROM ").append(table);
+        if (fields == null) {
+            throw new IllegalArgumentException("No fields requested.");
+        }
+        for (String field : fields) {
+            query.select(ColumnRef.parse(field));
+        }
 
-        // Extract and append conditions
+        // Extract conditions
         Map<String, Map<String, Object>> conditions = (Map<String, Map<String, Object>>) request.get("conditions");
-        if (conditions != null && !conditions.isEmpty()) {
-            queryBuilder.append(" WHERE ");
+        if (conditions != null) {
             for (Map.Entry<String, Map<String, Object>> conditionEntry : conditions.entrySet()) {
-                String field = conditionEntry.getKey();
                 Map<String, Object> conditionDetails = conditionEntry.getValue();
-                String operator = (String) conditionDetails.get("operator");
-                Object value = conditionDetails.get("value");
-
-                queryBuilder.append(field).append(" ").append(operator).append(" '").append(value).append("' AND ");
+                query.where(Predicate.compare(ColumnRef.parse(conditionEntry.getKey()),
+                        (String) conditionDetails.get("operator"), conditionDetails.get("value")));
             }
-            queryBuilder.setLength(queryBuilder.length() - 5);  // Remove trailing ' AND '
         }
 
-        // Extract and append sorting
+        Map<String, Object> pagination = (Map<String, Object>) request.get("pagination");
         Map<String, String> sort = (Map<String, String>) request.get("sort");
-        if (sort != null) {
-            String sortField = sort.get("field");
-            String sortOrder = sort.get("order");
-            queryBuilder.append(" ORDER BY ").append(sortField).append(" ").append(sortOrder);
+        String sortField = sort != null ? sort.get("field") : null;
+
+        // Keyset pagination is requested with pagination.mode = "keyset"; it replaces OFFSET with a
+        // seek predicate on the sort column plus the table's tiebreaker column
+        if (pagination != null && "keyset".equals(pagination.get("mode"))) {
+            boolean descending = sort != null && OrderItem.isDescending(sort.get("order"));
+            List<String> sortColumns = KeysetPagination.sortColumns(sortField, schemaCatalog.getKeyColumn(table));
+            KeysetPagination keyset = new KeysetPagination(sortColumns, descending, toInt(pagination.get("limit"), 10));
+            return query.keyset(keyset, (String) pagination.get("cursor"));
+        }
+
+        // Extract sorting
+        if (sortField != null) {
+            query.orderBy(new OrderItem(ColumnRef.parse(sortField), OrderItem.isDescending(sort.get("order"))));
         }
 
-        // Extract and append pagination
-        Map<String, Integer> pagination = (Map<String, Integer>) request.get("pagination");
+        // Extract pagination
         if (pagination != null) {
-            int limit = pagination.getOrDefault("limit", 10);
-            int offset = pagination.getOrDefault("offset", 0);
-            queryBuilder.append(" LIMIT ").append(limit).append(" OFFSET ").append(offset);
+            query.page(toInt(pagination.get("limit"), 10), toInt(pagination.get("offset"), 0));
         }
 
-        return queryBuilder.toString();
+        return query;
+    }
+
+    private int toInt(Object value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        } else if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value instanceof String) {
+            return Integer.parseInt((String) value);
+        } else {
+            throw new IllegalArgumentException("Invalid pagination value: " + value);
+        }
     }
 }
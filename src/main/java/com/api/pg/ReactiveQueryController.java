@@ -0,0 +1,59 @@
+package com.api.pg;
+
+import com.example.dsl.JsonToDslTranslator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Non-blocking counterparts of /api/query/execute and /api/v1/dsl/query.
+ * They reuse the same translators and validators but execute over R2DBC and return rows
+ * as a Flux, streamed as NDJSON (or collected into a JSON array when the client asks for JSON).
+ * Under Spring MVC the servlet thread is released while rows are produced; with
+ * spring.main.web-application-type=reactive they run on WebFlux with a handful of event-loop threads.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@ConditionalOnProperty(name = "query.reactive.enabled", havingValue = "true")
+public class ReactiveQueryController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private QueryTranslator queryTranslator;
+
+    @Autowired
+    private JsonToDslTranslator jsonToDslTranslator;
+
+    @Autowired
+    private ReactiveQueryExecutionService reactiveQueryExecutionService;
+
+    @PostMapping(value = "/query/execute", produces = {NDJSON, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Map<String, Object>> executeQuery(@RequestBody Map<String, Object> request) {
+        return translate(() -> queryTranslator.translateAndValidateQuery(request))
+                .flatMapMany(reactiveQueryExecutionService::executeQuery);
+    }
+
+    @PostMapping(value = "/v1/dsl/query", produces = {NDJSON, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Map<String, Object>> executeElasticSearchStyleQuery(@RequestBody Map<String, Object> queryRequest) {
+        return translate(() -> jsonToDslTranslator.translateToDsl(queryRequest))
+                .flatMapMany(reactiveQueryExecutionService::executeQuery);
+    }
+
+    // Translation is CPU-only; failures map to the same status codes as the blocking endpoints
+    private Mono<ParameterizedQuery> translate(Callable<ParameterizedQuery> translation) {
+        return Mono.fromCallable(translation)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error: " + e.getMessage(), e))
+                .onErrorMap(e -> !(e instanceof ResponseStatusException),
+                        e -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error: " + e.getMessage(), e));
+    }
+}
@@ -0,0 +1,100 @@
+package com.api.pg;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Executes translated queries over R2DBC. Rows are emitted as the driver decodes them and
+ * only as fast as the subscriber requests them, so a slow client holds neither a thread
+ * nor a growing buffer of rows.
+ */
+@Service
+@ConditionalOnProperty(name = "query.reactive.enabled", havingValue = "true")
+public class ReactiveQueryExecutionService {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    // Rows requested from the server per round trip
+    @Value("${query.stream.fetch-size:1000}")
+    private int fetchSize;
+
+    public Flux<Map<String, Object>> executeQuery(ParameterizedQuery query) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(toNativePlaceholders(query.getSql()))
+                .filter(statement -> statement.fetchSize(fetchSize));
+
+        List<Object> parameters = query.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            Object parameter = parameters.get(i);
+            Object value = toR2dbcValue(parameter);
+            if (value == null) {
+                spec = spec.bindNull(i, nullType(parameter));
+            } else {
+                spec = spec.bind(i, value);
+            }
+        }
+        return spec.fetch().all();
+    }
+
+    // The translators emit JDBC-style '?' placeholders; r2dbc-postgresql expects $1, $2, ...
+    static String toNativePlaceholders(String sql) {
+        StringBuilder nativeSql = new StringBuilder(sql.length() + 8);
+        boolean inString = false;
+        int index = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inString = !inString;
+            }
+            if (c == '?' && !inString) {
+                nativeSql.append('$').append(++index);
+            } else {
+                nativeSql.append(c);
+            }
+        }
+        return nativeSql.toString();
+    }
+
+    // R2DBC has no java.sql types and no SqlParameterValue; unwrap to the java.time equivalents
+    private static Object toR2dbcValue(Object parameter) {
+        Object value = parameter instanceof SqlParameterValue ? ((SqlParameterValue) parameter).getValue() : parameter;
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        } else if (value instanceof Date) {
+            return ((Date) value).toLocalDate();
+        }
+        return value;
+    }
+
+    private static Class<?> nullType(Object parameter) {
+        if (!(parameter instanceof SqlParameterValue)) {
+            return String.class;
+        }
+        switch (((SqlParameterValue) parameter).getSqlType()) {
+            case Types.SMALLINT:
+            case Types.INTEGER: return Integer.class;
+            case Types.BIGINT: return Long.class;
+            case Types.NUMERIC:
+            case Types.DECIMAL: return BigDecimal.class;
+            case Types.REAL:
+            case Types.DOUBLE: return Double.class;
+            case Types.BOOLEAN: return Boolean.class;
+            case Types.DATE: return java.time.LocalDate.class;
+            case Types.TIMESTAMP: return java.time.LocalDateTime.class;
+            case Types.TIMESTAMP_WITH_TIMEZONE: return java.time.OffsetDateTime.class;
+            default: return String.class;
+        }
+    }
+}
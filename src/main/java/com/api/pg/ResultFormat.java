@@ -0,0 +1,80 @@
+package com.api.pg;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Response encodings for query results, chosen from the request's Accept header.
+ * JSON (an array of row objects) stays the default. The columnar formats send the column
+ * names once and every row as an array of values, as JSON or as MessagePack.
+ */
+public enum ResultFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    COLUMNAR_JSON(MediaType.parseMediaType("application/vnd.pgapi.columnar+json")),
+    MSGPACK(MediaType.parseMediaType("application/x-msgpack"));
+
+    private static final MediaType MSGPACK_ALIAS = MediaType.parseMediaType("application/msgpack");
+
+    // Dates as ISO strings, as the JSON responses write them
+    private static final ObjectMapper MESSAGE_PACK_MAPPER = new ObjectMapper(new MessagePackFactory())
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final MediaType mediaType;
+
+    ResultFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    // Picks the most preferred supported type; a missing, wildcard or unsupported Accept header means JSON
+    public static ResultFormat fromAccept(String accept) {
+        if (accept == null || accept.trim().isEmpty()) {
+            return JSON;
+        }
+        List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            throw new IllegalArgumentException("Invalid Accept header: " + accept);
+        }
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+
+        for (MediaType accepted : acceptedTypes) {
+            if (accepted.getQualityValue() == 0) {
+                continue;
+            }
+            if (accepted.isWildcardType() || accepted.isWildcardSubtype() || accepted.equalsTypeAndSubtype(JSON.mediaType)) {
+                return JSON;
+            }
+            if (accepted.equalsTypeAndSubtype(COLUMNAR_JSON.mediaType)) {
+                return COLUMNAR_JSON;
+            }
+            if (accepted.equalsTypeAndSubtype(MSGPACK.mediaType) || accepted.equalsTypeAndSubtype(MSGPACK_ALIAS)) {
+                return MSGPACK;
+            }
+        }
+        return JSON;
+    }
+
+    // Writer for the columnar formats; the JSON format writes row objects through the usual converters
+    public ColumnarResultWriter columnarWriter(ObjectMapper jsonMapper) {
+        switch (this) {
+            case COLUMNAR_JSON:
+                return new ColumnarResultWriter(jsonMapper);
+            case MSGPACK:
+                return new ColumnarResultWriter(MESSAGE_PACK_MAPPER);
+            default:
+                throw new IllegalStateException("No columnar writer for " + this);
+        }
+    }
+}
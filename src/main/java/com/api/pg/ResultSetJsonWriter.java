@@ -0,0 +1,76 @@
+package com.api.pg;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Writes a ResultSet row by row to an OutputStream, either as a single JSON array
+ * of row objects or as newline-delimited JSON (one row object per line).
+ * Rows are never collected in memory; the generator is flushed every {@code flushEvery} rows
+ * so the servlet output buffer drains while the cursor keeps fetching.
+ */
+public class ResultSetJsonWriter {
+
+    private final ObjectMapper objectMapper;
+    private final boolean ndjson;
+    private final int flushEvery;
+
+    public ResultSetJsonWriter(ObjectMapper objectMapper, boolean ndjson, int flushEvery) {
+        this.objectMapper = objectMapper;
+        this.ndjson = ndjson;
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    // Streams all remaining rows of the ResultSet and returns the number of rows written
+    public long write(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+
+        // Resolve column labels once instead of per row
+        String[] labels = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Do not close the servlet stream when the generator is closed
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (ndjson) {
+                generator.setRootValueSeparator(null);
+            } else {
+                generator.writeStartArray();
+            }
+
+            while (resultSet.next()) {
+                generator.writeStartObject();
+                for (int i = 0; i < columnCount; i++) {
+                    generator.writeFieldName(labels[i]);
+                    generator.writeObject(resultSet.getObject(i + 1));
+                }
+                generator.writeEndObject();
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+
+                // Push completed rows to the client; a slow reader blocks here, which
+                // in turn stops the cursor from fetching further batches
+                if (++rows % flushEvery == 0) {
+                    generator.flush();
+                }
+            }
+
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.flush();
+        }
+        return rows;
+    }
+}
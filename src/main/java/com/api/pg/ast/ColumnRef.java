@@ -0,0 +1,77 @@
+package com.api.pg.ast;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A column reference: optional table alias, column name, optional JSONB access path
+ * (e.g. {@code ->>'name'}) and optional output alias for the select list.
+ */
+public final class ColumnRef {
+
+    private static final Pattern COLUMN = Pattern.compile(
+            "^(?:([A-Za-z_][A-Za-z_0-9]*)\\.)?([A-Za-z_][A-Za-z_0-9]*)" +   // [qualifier.]column
+            "((?:\\s*(?:->>|->|#>>)\\s*'[^'\\\\]*')*)" +                      // JSONB access path
+            "(?:\\s+(?:AS\\s+)?([A-Za-z_][A-Za-z_0-9]*))?$",                   // [AS] alias
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern PATH_WHITESPACE = Pattern.compile("\\s+(?=(?:[^']*'[^']*')*[^']*$)");
+
+    private final String qualifier;
+    private final String column;
+    private final String jsonbPath;
+    private final String alias;
+
+    public ColumnRef(String qualifier, String column, String jsonbPath, String alias) {
+        this.qualifier = qualifier;
+        this.column = column;
+        this.jsonbPath = jsonbPath != null ? jsonbPath : "";
+        this.alias = alias;
+    }
+
+    // Parses "column", "alias.column", "column->>'key'" and any of these followed by "[AS] name"
+    public static ColumnRef parse(String text) {
+        Matcher matcher = text != null ? COLUMN.matcher(text.trim()) : null;
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException("Invalid column expression: " + text);
+        }
+        // Whitespace inside the path is dropped (outside quoted keys) so it matches the allowlist spelling
+        String path = PATH_WHITESPACE.matcher(matcher.group(3)).replaceAll("");
+        return new ColumnRef(matcher.group(1), matcher.group(2), path, matcher.group(4));
+    }
+
+    public String getQualifier() {
+        return qualifier;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getJsonbPath() {
+        return jsonbPath;
+    }
+
+    public boolean isJsonb() {
+        return !jsonbPath.isEmpty();
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    // The allowlist spelling of a JSONB field: column plus path, without qualifier
+    public String getJsonbField() {
+        return column + jsonbPath;
+    }
+
+    // The expression without the output alias, as it appears in WHERE and ORDER BY
+    public String toExpression() {
+        return (qualifier != null ? qualifier + "." : "") + column + jsonbPath;
+    }
+
+    @Override
+    public String toString() {
+        return alias != null ? toExpression() + " AS " + alias : toExpression();
+    }
+}
@@ -0,0 +1,29 @@
+package com.api.pg.ast;
+
+/**
+ * A JOIN clause: join type (INNER, LEFT, RIGHT, FULL), the joined table and its ON condition.
+ */
+public final class Join {
+
+    private final String type;
+    private final TableRef table;
+    private final Predicate on;
+
+    public Join(String type, TableRef table, Predicate on) {
+        this.type = type != null ? type.trim().toUpperCase() : "INNER";
+        this.table = table;
+        this.on = on;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public TableRef getTable() {
+        return table;
+    }
+
+    public Predicate getOn() {
+        return on;
+    }
+}
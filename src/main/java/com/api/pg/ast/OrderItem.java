@@ -0,0 +1,33 @@
+package com.api.pg.ast;
+
+/**
+ * A sort key in the ORDER BY clause.
+ */
+public final class OrderItem {
+
+    private final ColumnRef column;
+    private final boolean descending;
+
+    public OrderItem(ColumnRef column, boolean descending) {
+        this.column = column;
+        this.descending = descending;
+    }
+
+    // Parses the requested direction; only ASC and DESC (any case) are accepted
+    public static boolean isDescending(String direction) {
+        if (direction == null || direction.equalsIgnoreCase("ASC")) {
+            return false;
+        } else if (direction.equalsIgnoreCase("DESC")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Invalid sort order: " + direction);
+    }
+
+    public ColumnRef getColumn() {
+        return column;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+}
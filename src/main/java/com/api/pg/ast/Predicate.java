@@ -0,0 +1,95 @@
+package com.api.pg.ast;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A condition in a WHERE or JOIN ON clause. One of:
+ * a column compared with a value ({@code age > ?}), a column compared with another column
+ * ({@code u.id = o.user_id}), or a row-value comparison used for keyset seeks
+ * ({@code (created_at, id) > (?, ?)}). Keyset seeks over nullable columns also use null checks
+ * ({@code created_at IS NULL}) and AND/OR groups of other predicates.
+ */
+public final class Predicate {
+
+    public enum Kind { COLUMN_VALUE, COLUMN_COLUMN, ROW_VALUE, NULL_CHECK, ALL_OF, ANY_OF }
+
+    private final Kind kind;
+    private final List<ColumnRef> columns;
+    private final String operator;
+    private final List<Object> values;
+    private final ColumnRef rightColumn;
+    private final List<Predicate> children;
+
+    private Predicate(Kind kind, List<ColumnRef> columns, String operator, List<Object> values, ColumnRef rightColumn) {
+        this(kind, columns, operator, values, rightColumn, Collections.emptyList());
+    }
+
+    private Predicate(Kind kind, List<ColumnRef> columns, String operator, List<Object> values, ColumnRef rightColumn,
+                      List<Predicate> children) {
+        this.kind = kind;
+        this.columns = columns;
+        this.operator = operator;
+        this.values = values;
+        this.rightColumn = rightColumn;
+        this.children = children;
+    }
+
+    public static Predicate compare(ColumnRef column, String operator, Object value) {
+        return new Predicate(Kind.COLUMN_VALUE, Collections.singletonList(column), operator,
+                Collections.singletonList(value), null);
+    }
+
+    public static Predicate compareColumns(ColumnRef left, String operator, ColumnRef right) {
+        return new Predicate(Kind.COLUMN_COLUMN, Collections.singletonList(left), operator, Collections.emptyList(), right);
+    }
+
+    public static Predicate compareRow(List<ColumnRef> columns, String operator, List<Object> values) {
+        if (columns.size() != values.size()) {
+            throw new IllegalArgumentException("Row comparison needs one value per column.");
+        }
+        return new Predicate(Kind.ROW_VALUE, columns, operator, values, null);
+    }
+
+    public static Predicate isNull(ColumnRef column) {
+        return new Predicate(Kind.NULL_CHECK, Collections.singletonList(column), "IS NULL", Collections.emptyList(), null);
+    }
+
+    public static Predicate isNotNull(ColumnRef column) {
+        return new Predicate(Kind.NULL_CHECK, Collections.singletonList(column), "IS NOT NULL", Collections.emptyList(), null);
+    }
+
+    public static Predicate allOf(Predicate... predicates) {
+        return new Predicate(Kind.ALL_OF, Collections.emptyList(), "AND", Collections.emptyList(), null, Arrays.asList(predicates));
+    }
+
+    public static Predicate anyOf(Predicate... predicates) {
+        return new Predicate(Kind.ANY_OF, Collections.emptyList(), "OR", Collections.emptyList(), null, Arrays.asList(predicates));
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public List<ColumnRef> getColumns() {
+        return columns;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    public ColumnRef getRightColumn() {
+        return rightColumn;
+    }
+
+    // The grouped predicates of an ALL_OF or ANY_OF predicate
+    public List<Predicate> getChildren() {
+        return children;
+    }
+}
@@ -0,0 +1,340 @@
+package com.api.pg.ast;
+
+import com.api.pg.KeysetPagination;
+import com.api.pg.ParameterizedQuery;
+import com.api.pg.schema.ColumnSchema;
+import com.api.pg.schema.SchemaCatalog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks a {@link SelectQuery} against the {@link SchemaCatalog} and renders it to a SQL template
+ * with bind parameters in a single pass. Every identifier that reaches the SQL text is either an
+ * allowlisted table/column/JSONB field or a plain identifier alias, and every request value is
+ * bound with its column's type, so the output does not need to be parsed again to be trusted.
+ */
+public class QueryCompiler {
+
+    private static final Set<String> OPERATORS = new HashSet<>(Arrays.asList(
+            "=", "<>", "!=", "<", "<=", ">", ">=", "LIKE", "ILIKE", "@>"));
+    private static final Set<String> JOIN_TYPES = new HashSet<>(Arrays.asList("INNER", "LEFT", "RIGHT", "FULL"));
+
+    // The final operator of a normalized JSONB path, e.g. "->>" in "->'address'->>'city'"
+    private static final Pattern LAST_PATH_STEP = Pattern.compile("(->>|->|#>>)'[^']*'$");
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private final SchemaCatalog schemaCatalog;
+
+    public QueryCompiler(SchemaCatalog schemaCatalog) {
+        this.schemaCatalog = schemaCatalog;
+    }
+
+    public ParameterizedQuery compile(SelectQuery query) {
+        Map<String, String> aliasToTable = resolveTables(query);
+        String fromAlias = query.getFrom().getAlias();
+        KeysetPagination keyset = query.getKeyset();
+        List<Object> parameters = new ArrayList<>();
+
+        // Keyset pages also select the sort keys, which the next continuation token is built from
+        List<ColumnRef> selectList = new ArrayList<>(query.getSelectList());
+        List<OrderItem> orderBy = query.getOrderBy();
+        List<Predicate> where = query.getWhere();
+        if (keyset != null) {
+            orderBy = new ArrayList<>();
+            for (String sortColumn : keyset.getSortColumns()) {
+                ColumnRef column = ColumnRef.parse(sortColumn);
+                if (!isSelected(selectList, column)) {
+                    selectList.add(column);
+                }
+                orderBy.add(new OrderItem(column, keyset.isDescending()));
+            }
+            if (query.getSeekToken() != null) {
+                where = new ArrayList<>(where);
+                where.add(seekPredicate(keyset, query.getSeekToken(), aliasToTable, fromAlias));
+            }
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (selectList.isEmpty()) {
+            throw new IllegalArgumentException("No columns selected.");
+        }
+        for (int i = 0; i < selectList.size(); i++) {
+            ColumnRef column = selectList.get(i);
+            resolveColumn(column, aliasToTable, fromAlias);
+            sql.append(i > 0 ? ", " : "").append(column);
+        }
+        appendFromAndWhere(sql, query, where, aliasToTable, parameters);
+
+        if (!orderBy.isEmpty()) {
+            sql.append(" ORDER BY ");
+            for (int i = 0; i < orderBy.size(); i++) {
+                OrderItem item = orderBy.get(i);
+                resolveColumn(item.getColumn(), aliasToTable, fromAlias);
+                sql.append(i > 0 ? ", " : "").append(item.getColumn().toExpression())
+                        .append(item.isDescending() ? " DESC" : " ASC");
+            }
+        }
+
+        Integer limit = keyset != null ? Integer.valueOf(keyset.getLimit()) : query.getLimit();
+        Integer offset = keyset != null ? null : query.getOffset();
+        if (limit != null) {
+            sql.append(" LIMIT ?");
+            parameters.add(nonNegative(limit, "limit"));
+        }
+        if (offset != null) {
+            sql.append(" OFFSET ?");
+            parameters.add(nonNegative(offset, "offset"));
+        }
+
+        return new ParameterizedQuery(sql.toString(), parameters, keyset, new HashSet<>(aliasToTable.values()), schemaCatalog);
+    }
+
+    // COUNT(*) over the same tables and predicates, ignoring select list, sort, page and seek
+    public ParameterizedQuery compileCount(SelectQuery query) {
+        Map<String, String> aliasToTable = resolveTables(query);
+        for (ColumnRef column : query.getSelectList()) {
+            resolveColumn(column, aliasToTable, query.getFrom().getAlias());
+        }
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*)");
+        appendFromAndWhere(sql, query, query.getWhere(), aliasToTable, parameters);
+        return new ParameterizedQuery(sql.toString(), parameters, null, new HashSet<>(aliasToTable.values()), schemaCatalog);
+    }
+
+    // Checks FROM and JOIN tables against the allowlist and maps each alias to its table
+    private Map<String, String> resolveTables(SelectQuery query) {
+        if (query.getFrom() == null) {
+            throw new IllegalArgumentException("Missing table name.");
+        }
+        Map<String, String> aliasToTable = new HashMap<>();
+        addTable(aliasToTable, query.getFrom());
+        for (Join join : query.getJoins()) {
+            if (!JOIN_TYPES.contains(join.getType())) {
+                throw new IllegalArgumentException("Invalid join type: " + join.getType());
+            }
+            addTable(aliasToTable, join.getTable());
+        }
+        return aliasToTable;
+    }
+
+    private void addTable(Map<String, String> aliasToTable, TableRef table) {
+        if (!schemaCatalog.isTableAllowed(table.getTable())) {
+            throw new IllegalArgumentException("Table " + table.getTable() + " is not allowed.");
+        }
+        if (aliasToTable.put(table.getAlias(), table.getTable()) != null) {
+            throw new IllegalArgumentException("Duplicate table alias: " + table.getAlias());
+        }
+    }
+
+    private void appendFromAndWhere(StringBuilder sql, SelectQuery query, List<Predicate> where,
+                                    Map<String, String> aliasToTable, List<Object> parameters) {
+        String fromAlias = query.getFrom().getAlias();
+        sql.append(" FROM ");
+        appendTable(sql, query.getFrom());
+        for (Join join : query.getJoins()) {
+            sql.append(" ").append(join.getType()).append(" JOIN ");
+            appendTable(sql, join.getTable());
+            sql.append(" ON ");
+            appendPredicate(sql, join.getOn(), aliasToTable, fromAlias, parameters);
+        }
+
+        for (int i = 0; i < where.size(); i++) {
+            sql.append(i > 0 ? " AND " : " WHERE ");
+            appendPredicate(sql, where.get(i), aliasToTable, fromAlias, parameters);
+        }
+    }
+
+    private void appendTable(StringBuilder sql, TableRef table) {
+        sql.append(table.getTable());
+        if (table.hasExplicitAlias()) {
+            sql.append(" ").append(table.getAlias());
+        }
+    }
+
+    private void appendPredicate(StringBuilder sql, Predicate predicate, Map<String, String> aliasToTable,
+                                 String fromAlias, List<Object> parameters) {
+        List<ColumnRef> columns = predicate.getColumns();
+
+        switch (predicate.getKind()) {
+            case COLUMN_VALUE: {
+                String operator = operator(predicate.getOperator());
+                ColumnRef column = columns.get(0);
+                ColumnSchema columnSchema = resolveColumn(column, aliasToTable, fromAlias);
+                sql.append(column.toExpression()).append(" ").append(operator).append(" ?");
+                parameters.add(bind(column, columnSchema, operator, predicate.getValues().get(0)));
+                break;
+            }
+            case COLUMN_COLUMN: {
+                String operator = operator(predicate.getOperator());
+                resolveColumn(columns.get(0), aliasToTable, fromAlias);
+                resolveColumn(predicate.getRightColumn(), aliasToTable, fromAlias);
+                sql.append(columns.get(0).toExpression()).append(" ").append(operator).append(" ")
+                        .append(predicate.getRightColumn().toExpression());
+                break;
+            }
+            case ROW_VALUE: {
+                // e.g. "(created_at, id) > (?, ?)"; PostgreSQL compares row values lexicographically
+                String operator = operator(predicate.getOperator());
+                StringBuilder placeholders = new StringBuilder();
+                sql.append("(");
+                for (int i = 0; i < columns.size(); i++) {
+                    ColumnRef column = columns.get(i);
+                    ColumnSchema columnSchema = resolveColumn(column, aliasToTable, fromAlias);
+                    sql.append(i > 0 ? ", " : "").append(column.toExpression());
+                    placeholders.append(i > 0 ? ", ?" : "?");
+                    parameters.add(bind(column, columnSchema, operator, predicate.getValues().get(i)));
+                }
+                sql.append(") ").append(operator).append(" (").append(placeholders).append(")");
+                break;
+            }
+            case NULL_CHECK: {
+                // Only built by the compiler itself; the operator is IS NULL or IS NOT NULL
+                resolveColumn(columns.get(0), aliasToTable, fromAlias);
+                sql.append(columns.get(0).toExpression()).append(" ").append(predicate.getOperator());
+                break;
+            }
+            case ALL_OF:
+            case ANY_OF: {
+                List<Predicate> children = predicate.getChildren();
+                sql.append("(");
+                for (int i = 0; i < children.size(); i++) {
+                    sql.append(i > 0 ? " " + predicate.getOperator() + " " : "");
+                    appendPredicate(sql, children.get(i), aliasToTable, fromAlias, parameters);
+                }
+                sql.append(")");
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unsupported predicate: " + predicate.getKind());
+        }
+    }
+
+    // Checks the column against the allowlist of the table its alias refers to (the FROM table when
+    // unqualified) and returns its schema; JSONB fields have no column schema
+    private ColumnSchema resolveColumn(ColumnRef column, Map<String, String> aliasToTable, String fromAlias) {
+        String alias = column.getQualifier() != null ? column.getQualifier() : fromAlias;
+        String table = aliasToTable.get(alias);
+        if (table == null) {
+            throw new IllegalArgumentException("Unknown table alias: " + alias);
+        }
+        if (column.isJsonb()) {
+            if (!schemaCatalog.isJsonbFieldAllowed(table, column.getJsonbField())) {
+                throw new IllegalArgumentException("JSONB field " + column.getJsonbField() + " is not allowed for table " + table);
+            }
+            return null;
+        }
+        if (!schemaCatalog.isColumnAllowed(table, column.getColumn())) {
+            throw new IllegalArgumentException("Column " + column.getColumn() + " is not allowed for table " + table);
+        }
+        return schemaCatalog.getColumn(table, column.getColumn());
+    }
+
+    private String operator(String operator) {
+        String normalized = operator != null ? operator.trim().toUpperCase() : null;
+        if (normalized == null || !OPERATORS.contains(normalized)) {
+            throw new IllegalArgumentException("Invalid operator: " + operator);
+        }
+        return normalized;
+    }
+
+    // Binds a request value with the column's JDBC type. JSONB containment and "->" paths compare
+    // against a JSON document; "->>" and "#>>" paths yield text.
+    private Object bind(ColumnRef column, ColumnSchema columnSchema, String operator, Object value) {
+        if (value == null) {
+            return columnSchema != null ? columnSchema.bind(null) : null;
+        }
+        if (operator.equals("@>") || (column.isJsonb() && !isTextPath(column.getJsonbPath()))) {
+            return new SqlParameterValue(Types.OTHER, value instanceof String ? value : toJson(value));
+        }
+        if (column.isJsonb()) {
+            return value.toString();
+        }
+        return columnSchema != null ? columnSchema.bind(value) : ColumnSchema.bindUntyped(value);
+    }
+
+    private static boolean isTextPath(String jsonbPath) {
+        Matcher lastStep = LAST_PATH_STEP.matcher(jsonbPath);
+        return lastStep.find() && !lastStep.group(1).equals("->");
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return JSON_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON value: " + value);
+        }
+    }
+
+    // Rows after the last row of the previous page. With a nullable sort column a plain row comparison
+    // is NULL for every row once the last sort value is NULL, and never matches the NULLs sorted after
+    // the non-null values, so those pages need explicit null handling. PostgreSQL sorts NULLs last
+    // ascending and first descending; the tiebreaker key is never NULL.
+    private Predicate seekPredicate(KeysetPagination keyset, String token, Map<String, String> aliasToTable, String fromAlias) {
+        List<Object> values = keyset.decodeToken(token);
+        List<ColumnRef> columns = new ArrayList<>();
+        for (String sortColumn : keyset.getSortColumns()) {
+            columns.add(ColumnRef.parse(sortColumn));
+        }
+        ColumnRef keyColumn = columns.get(columns.size() - 1);
+        ColumnSchema keySchema = resolveColumn(keyColumn, aliasToTable, fromAlias);
+        if (keySchema != null && keySchema.getJdbcType() != ColumnSchema.UNKNOWN_TYPE && keySchema.isNullable()) {
+            throw new IllegalArgumentException("Key column " + keyColumn + " is nullable and cannot page by keyset.");
+        }
+        Object keyValue = values.get(values.size() - 1);
+        if (keyValue == null) {
+            throw new IllegalArgumentException("Invalid continuation token.");
+        }
+
+        String operator = keyset.isDescending() ? "<" : ">";
+        if (columns.size() == 1) {
+            return Predicate.compare(keyColumn, operator, keyValue);
+        }
+
+        ColumnRef sortColumn = columns.get(0);
+        Object sortValue = values.get(0);
+        ColumnSchema sortSchema = resolveColumn(sortColumn, aliasToTable, fromAlias);
+        boolean nullable = sortSchema == null || sortSchema.isNullable();
+        if (!nullable) {
+            if (sortValue == null) {
+                throw new IllegalArgumentException("Invalid continuation token.");
+            }
+            return Predicate.compareRow(columns, operator, values);
+        }
+        if (sortValue == null) {
+            // Inside the NULLs: the rest of them by key, then (descending) every non-null value
+            Predicate restOfNulls = Predicate.allOf(Predicate.isNull(sortColumn), Predicate.compare(keyColumn, operator, keyValue));
+            return keyset.isDescending() ? Predicate.anyOf(restOfNulls, Predicate.isNotNull(sortColumn)) : restOfNulls;
+        }
+        Predicate after = Predicate.compareRow(columns, operator, values);
+        return keyset.isDescending() ? after : Predicate.anyOf(after, Predicate.isNull(sortColumn));
+    }
+
+    private static boolean isSelected(List<ColumnRef> selectList, ColumnRef column) {
+        for (ColumnRef selected : selectList) {
+            if (selected.getAlias() == null && selected.toExpression().equals(column.toExpression())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int nonNegative(int value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+        return value;
+    }
+}
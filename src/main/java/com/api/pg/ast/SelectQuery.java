@@ -0,0 +1,100 @@
+package com.api.pg.ast;
+
+import com.api.pg.KeysetPagination;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typed form of a structured JSON query request: select list, FROM table, joins,
+ * AND-ed predicates, sort keys and page. Translators map the request into this once;
+ * {@link QueryCompiler} checks it against the allowlist and renders the SQL template,
+ * so structured requests never go through the ANTLR parser.
+ */
+public final class SelectQuery {
+
+    private final List<ColumnRef> selectList = new ArrayList<>();
+    private final List<Join> joins = new ArrayList<>();
+    private final List<Predicate> where = new ArrayList<>();
+    private final List<OrderItem> orderBy = new ArrayList<>();
+    private TableRef from;
+    private Integer limit;
+    private Integer offset;
+
+    // Keyset pages replace orderBy/limit/offset with the keyset's sort and an optional seek token
+    private KeysetPagination keyset;
+    private String seekToken;
+
+    public SelectQuery select(ColumnRef column) {
+        selectList.add(column);
+        return this;
+    }
+
+    public SelectQuery from(TableRef table) {
+        this.from = table;
+        return this;
+    }
+
+    public SelectQuery join(Join join) {
+        joins.add(join);
+        return this;
+    }
+
+    public SelectQuery where(Predicate predicate) {
+        where.add(predicate);
+        return this;
+    }
+
+    public SelectQuery orderBy(OrderItem item) {
+        orderBy.add(item);
+        return this;
+    }
+
+    public SelectQuery page(Integer limit, Integer offset) {
+        this.limit = limit;
+        this.offset = offset;
+        return this;
+    }
+
+    public SelectQuery keyset(KeysetPagination keyset, String seekToken) {
+        this.keyset = keyset;
+        this.seekToken = seekToken != null && !seekToken.isEmpty() ? seekToken : null;
+        return this;
+    }
+
+    public List<ColumnRef> getSelectList() {
+        return selectList;
+    }
+
+    public TableRef getFrom() {
+        return from;
+    }
+
+    public List<Join> getJoins() {
+        return joins;
+    }
+
+    public List<Predicate> getWhere() {
+        return where;
+    }
+
+    public List<OrderItem> getOrderBy() {
+        return orderBy;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public Integer getOffset() {
+        return offset;
+    }
+
+    public KeysetPagination getKeyset() {
+        return keyset;
+    }
+
+    public String getSeekToken() {
+        return seekToken;
+    }
+}
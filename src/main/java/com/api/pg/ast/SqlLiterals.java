@@ -0,0 +1,69 @@
+package com.api.pg.ast;
+
+import com.api.pg.ParameterizedQuery;
+import org.postgresql.core.Utils;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Inlines the bind parameters of a compiled query as SQL literals, for statements that cannot
+ * take parameters such as {@code COPY (query) TO STDOUT}. Strings are escaped with pgjdbc's own
+ * literal escaping; numbers and booleans are written in their canonical form.
+ */
+public final class SqlLiterals {
+
+    private SqlLiterals() {
+    }
+
+    // Compiled SQL only contains quotes around JSONB path keys, and no operator contains '?',
+    // so every '?' outside quotes is a placeholder
+    public static String inline(ParameterizedQuery query, boolean standardConformingStrings) throws SQLException {
+        String sql = query.getSql();
+        List<Object> parameters = query.getParameters();
+        StringBuilder inlined = new StringBuilder(sql.length() + parameters.size() * 16);
+        int next = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                if (next >= parameters.size()) {
+                    throw new IllegalStateException("More placeholders than parameters in: " + sql);
+                }
+                appendLiteral(inlined, parameters.get(next++), standardConformingStrings);
+            } else {
+                inlined.append(c);
+            }
+        }
+        if (next != parameters.size()) {
+            throw new IllegalStateException("More parameters than placeholders in: " + sql);
+        }
+        return inlined.toString();
+    }
+
+    private static void appendLiteral(StringBuilder sql, Object value, boolean standardConformingStrings) throws SQLException {
+        if (value instanceof SqlParameterValue) {
+            value = ((SqlParameterValue) value).getValue();
+        }
+        if (value == null) {
+            sql.append("NULL");
+        } else if (value instanceof BigDecimal) {
+            sql.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            sql.append(value);
+        } else if (value instanceof Boolean) {
+            sql.append((Boolean) value ? "TRUE" : "FALSE");
+        } else {
+            // Doubles go quoted too, so NaN and Infinity stay valid; the server casts the untyped
+            // literal to the compared column's type, as it does for dates, timestamps and JSON
+            sql.append('\'');
+            Utils.escapeLiteral(sql, value.toString(), standardConformingStrings);
+            sql.append('\'');
+        }
+    }
+}
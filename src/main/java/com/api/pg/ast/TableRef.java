@@ -0,0 +1,44 @@
+package com.api.pg.ast;
+
+import java.util.regex.Pattern;
+
+/**
+ * A table in the FROM or JOIN clause, with the alias columns use to refer to it.
+ * Without an explicit alias the table name is its own alias.
+ */
+public final class TableRef {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z_0-9]*");
+
+    private final String table;
+    private final String alias;
+
+    public TableRef(String table, String alias) {
+        this.table = table;
+        this.alias = alias != null ? alias : table;
+    }
+
+    // Parses "table" or "table alias"
+    public static TableRef parse(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing table name.");
+        }
+        String[] parts = text.trim().split("\\s+");
+        if (parts.length > 2 || (parts.length == 2 && !IDENTIFIER.matcher(parts[1]).matches())) {
+            throw new IllegalArgumentException("Invalid table reference: " + text);
+        }
+        return new TableRef(parts[0], parts.length > 1 ? parts[1] : null);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public boolean hasExplicitAlias() {
+        return !alias.equals(table);
+    }
+}
@@ -0,0 +1,96 @@
+package com.api.pg.cache;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+/**
+ * Invalidates cached results when PostgreSQL sends a notification on the configured channel.
+ * Off unless {@code query.cache.notify-channel} is set. The payload is the schema-qualified name
+ * of the changed table, typically sent by a trigger:
+ * {@code PERFORM pg_notify('query_cache_invalidation', TG_TABLE_SCHEMA || '.' || TG_TABLE_NAME);}
+ * LISTEN runs on a dedicated connection to the primary (spring.datasource), outside the pool,
+ * so it never takes a slot from queries. On failure it reconnects and flushes the whole cache,
+ * since notifications sent while disconnected are lost.
+ */
+@Component
+@ConditionalOnProperty(name = "query.cache.notify-channel")
+public class PgNotifyCacheInvalidator implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(PgNotifyCacheInvalidator.class);
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    @Value("${query.cache.notify-channel}")
+    private String channel;
+
+    private volatile boolean running = true;
+    private Thread listenerThread;
+
+    @PostConstruct
+    public void start() {
+        if (!channel.matches("[a-zA-Z_][a-zA-Z_0-9]*")) {
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        }
+        listenerThread = new Thread(this, "query-cache-listen");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // Anything cached before LISTEN took effect may have missed a notification
+                queryResultCache.invalidateAll();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(10000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        queryResultCache.invalidateTable(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost cache invalidation listener on channel {}, reconnecting: {}", channel, e.getMessage());
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
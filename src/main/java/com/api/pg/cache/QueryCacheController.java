@@ -0,0 +1,34 @@
+package com.api.pg.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/query/cache")
+public class QueryCacheController {
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    // Manually drop cached results that read from the given table
+    @PostMapping("/invalidate/{table}")
+    public ResponseEntity<Map<String, Object>> invalidateTable(@PathVariable("table") String table) {
+        queryResultCache.invalidateTable(table);
+        return ResponseEntity.ok(queryResultCache.getStats());
+    }
+
+    @PostMapping("/invalidate")
+    public ResponseEntity<Map<String, Object>> invalidateAll() {
+        queryResultCache.invalidateAll();
+        return ResponseEntity.ok(queryResultCache.getStats());
+    }
+
+    // Hit ratio, entry count and byte size of the cache
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(queryResultCache.getStats());
+    }
+}
@@ -0,0 +1,265 @@
+package com.api.pg.cache;
+
+import com.api.pg.ParameterizedQuery;
+import com.api.pg.schema.SchemaCatalog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of query results, keyed by the SQL template plus its bound values.
+ * Entries are weighted by an estimate of their size in bytes and evicted least recently
+ * used first once {@code query.cache.max-bytes} is exceeded. Each entry lives for the
+ * shortest cache TTL of the tables it reads (see "cache-ttl" in the allowlist), and can be
+ * dropped early for a table through {@link #invalidateTable(String)}.
+ * Tables are tracked as schema.table, so unqualified allowlist names and the schema-qualified
+ * names sent by invalidation triggers refer to the same entries.
+ * Hit ratio, size and entry count are published as {@code query.cache.*} gauges.
+ */
+@Component
+public class QueryResultCache {
+
+    @Value("${query.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    // Schema that unqualified table names resolve in, i.e. the database's current_schema()
+    @Value("${query.cache.default-schema:public}")
+    private String defaultSchema;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<List<Object>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<List<Object>>> keysByTable = new HashMap<>();
+    private long currentBytes;
+
+    // Incremented on every invalidation; a result computed across an invalidation is not stored
+    private final AtomicLong invalidationStamp = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public QueryResultCache(MeterRegistry registry) {
+        Gauge.builder("query.cache.hit.ratio", this, QueryResultCache::getHitRatio)
+                .description("Share of cache lookups served from the result cache")
+                .register(registry);
+        Gauge.builder("query.cache.bytes", this, QueryResultCache::getCurrentBytes)
+                .description("Estimated size of all cached results")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("query.cache.entries", this, QueryResultCache::size)
+                .description("Number of cached results")
+                .register(registry);
+    }
+
+    // Cache TTL in milliseconds for this query, 0 if it must not be cached
+    public long ttlMillis(ParameterizedQuery query) {
+        SchemaCatalog catalog = query.getCatalog();
+        return catalog != null ? catalog.getCacheTtlSeconds(query.getTables()) * 1000 : 0;
+    }
+
+    public long currentInvalidationStamp() {
+        return invalidationStamp.get();
+    }
+
+    public List<Map<String, Object>> get(ParameterizedQuery query) {
+        List<Object> key = keyOf(query);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return entry.rows;
+            }
+            if (entry != null) {
+                remove(key, entry);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    // Stores rows unless an invalidation happened since the query started (stamp taken before execution)
+    public List<Map<String, Object>> put(ParameterizedQuery query, List<Map<String, Object>> rows, long ttlMillis, long stamp) {
+        List<Map<String, Object>> cachedRows = Collections.unmodifiableList(rows);
+        long bytes = estimateBytes(query.getSql(), rows);
+
+        // A single huge result would flush everything else; serve it uncached
+        if (bytes > maxBytes / 4) {
+            return cachedRows;
+        }
+
+        List<Object> key = keyOf(query);
+        synchronized (this) {
+            if (invalidationStamp.get() != stamp) {
+                return cachedRows;
+            }
+            Entry previous = entries.get(key);
+            if (previous != null) {
+                remove(key, previous);
+            }
+            entries.put(key, new Entry(cachedRows, query.getTables(), bytes, System.currentTimeMillis() + ttlMillis));
+            currentBytes += bytes;
+            for (String table : query.getTables()) {
+                keysByTable.computeIfAbsent(qualify(table), t -> new HashSet<>()).add(key);
+            }
+            evictToLimit();
+        }
+        return cachedRows;
+    }
+
+    // Accepts "table" (resolved in the default schema) as well as "schema.table"
+    public void invalidateTable(String table) {
+        synchronized (this) {
+            invalidationStamp.incrementAndGet();
+            Set<List<Object>> keys = keysByTable.remove(qualify(table));
+            if (keys != null) {
+                for (List<Object> key : new ArrayList<>(keys)) {
+                    Entry entry = entries.get(key);
+                    if (entry != null) {
+                        remove(key, entry);
+                    }
+                }
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        synchronized (this) {
+            invalidationStamp.incrementAndGet();
+            entries.clear();
+            keysByTable.clear();
+            currentBytes = 0;
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (this) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", currentBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", getHitRatio());
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long requests = hitCount + misses.get();
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictToLimit() {
+        Iterator<Map.Entry<List<Object>, Entry>> iterator = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<List<Object>, Entry> eldest = iterator.next();
+            iterator.remove();
+            forget(eldest.getKey(), eldest.getValue());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(List<Object> key, Entry entry) {
+        entries.remove(key);
+        forget(key, entry);
+    }
+
+    private void forget(List<Object> key, Entry entry) {
+        currentBytes -= entry.bytes;
+        for (String table : entry.tables) {
+            Set<List<Object>> keys = keysByTable.get(qualify(table));
+            if (keys != null) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    private String qualify(String table) {
+        return table.indexOf('.') >= 0 ? table : defaultSchema + "." + table;
+    }
+
+    // SqlParameterValue has no equals(), so the key holds the plain values
+    private static List<Object> keyOf(ParameterizedQuery query) {
+        List<Object> key = new ArrayList<>(query.getParameters().size() + 1);
+        key.add(query.getSql());
+        for (Object parameter : query.getParameters()) {
+            key.add(parameter instanceof SqlParameterValue ? ((SqlParameterValue) parameter).getValue() : parameter);
+        }
+        return key;
+    }
+
+    // Rough heap footprint: object headers plus two bytes per character
+    private static long estimateBytes(String sql, List<Map<String, Object>> rows) {
+        long bytes = 64 + sql.length() * 2L;
+        for (Map<String, Object> row : rows) {
+            bytes += 48;
+            for (Map.Entry<String, Object> column : row.entrySet()) {
+                bytes += 32 + column.getKey().length() * 2L + estimateBytes(column.getValue());
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof CharSequence) {
+            return 40 + ((CharSequence) value).length() * 2L;
+        } else if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return 24;
+        }
+        return 32 + value.toString().length() * 2L;
+    }
+
+    private static final class Entry {
+        final List<Map<String, Object>> rows;
+        final Set<String> tables;
+        final long bytes;
+        final long expiresAt;
+
+        Entry(List<Map<String, Object>> rows, Set<String> tables, long bytes, long expiresAt) {
+            this.rows = rows;
+            this.tables = tables;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,23 +1,58 @@
 
 package com.api.pg.client;
 
+import com.api.pg.client.lb.LoadBalancer;
+import com.api.pg.client.retry.DecorrelatedJitterBackOffPolicy;
+import com.api.pg.client.retry.RetryBudget;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.retry.RetryContext;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class ApiClientService {
 
+    // Retry context attribute holding the instances already tried for the current call
+    private static final String TRIED_INSTANCES = "api-client.tried-instances";
+
+    private static final ParameterizedTypeReference<Map<String, Object>> RESPONSE_TYPE =
+            new ParameterizedTypeReference<Map<String, Object>>() {};
+
+    @Autowired
+    private DiscoveredInstances discoveredInstances;
+
     @Autowired
-    private DiscoveryClient discoveryClient;
+    private LoadBalancer loadBalancer;
 
     @Autowired
     private RestTemplate restTemplate;
@@ -25,40 +60,253 @@ public class ApiClientService {
     @Autowired
     private RetryTemplate retryTemplate;
 
+    @Autowired
+    private WebClient apiWebClient;
+
+    @Autowired
+    private RetryBudget retryBudget;
+
+    @Autowired
+    private DecorrelatedJitterBackOffPolicy backOffPolicy;
+
+    @Value("${spring.retry.maxAttempts:3}")
+    private int maxAttempts;
+
+    // Upper bound for one async attempt, including the wait for a pooled connection
+    @Value("${api-client.async.request-timeout-ms:10000}")
+    private long requestTimeoutMillis;
+
+    // How many requests of one queryAll call are in flight at once
+    @Value("${api-client.async.max-concurrency:16}")
+    private int maxConcurrency;
+
+    // Hedging: when an attempt has not answered after the recent latency percentile, a second one
+    // goes to another instance and the first response wins. Hedges are paid from the retry budget.
+    @Value("${api-client.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${api-client.hedging.min-delay-ms:20}")
+    private long hedgeMinDelayMillis;
+
+    // Used until enough latencies were recorded to compute the percentile
+    @Value("${api-client.hedging.default-delay-ms:200}")
+    private long hedgeDefaultDelayMillis;
+
+    // Paging: pages fetched ahead of the consumer, and the cap on rows buffered that way
+    @Value("${api-client.paging.prefetch-pages:2}")
+    private int prefetchPages;
+
+    @Value("${api-client.paging.max-buffered-rows:10000}")
+    private int maxBufferedRows;
+
+    // Ask the server for keyset continuation first and fall back to offsets if it does not answer with a cursor
+    @Value("${api-client.paging.keyset:true}")
+    private boolean keysetPaging;
+
+    private final LatencyWindow latencies;
+
+    public ApiClientService(@Value("${api-client.hedging.window:1024}") int hedgeWindow,
+                            @Value("${api-client.hedging.percentile:0.95}") double hedgePercentile) {
+        this.latencies = new LatencyWindow(hedgeWindow, hedgePercentile);
+    }
+
     // Discover the API service and invoke it with retry mechanism
     public Map<String, Object> queryApi(String table, List<String> fields, Map<String, Object> conditions, int limit, int offset) {
+        if (hedgingEnabled) {
+            // Hedged attempts race each other, which needs the non-blocking client
+            return queryApiAsync(new ApiQuery(table, fields, conditions, limit, offset)).block();
+        }
+
         // Use retry template to execute the request with retries
         return retryTemplate.execute(context -> {
 
-            // Get the service instance from Discovery Client
-            List<ServiceInstance> instances = discoveryClient.getInstances("api-service");  // Assume the API service is registered as 'api-service'
-            if (instances.isEmpty()) {
-                throw new RuntimeException("API service is not available");
-            }
-
-            // Get the first available instance of the API service
-            ServiceInstance serviceInstance = instances.get(0);
-
-            // Build the API endpoint URI
-            URI uri = UriComponentsBuilder.fromUri(serviceInstance.getUri())
-                    .path("/api/v1/dsl/query")
-                    .build()
-                    .toUri();
-
-            // Create the payload for the request
-            Map<String, Object> payload = Map.of(
-                "select", fields,
-                "from", table,
-                "where", conditions,
-                "limit", limit,
-                "offset", offset
-            );
+            // Pick an instance from the cached list, skipping ejected ones and those this call already tried
+            Set<String> tried = triedInstances(context);
+            ServiceInstance serviceInstance = loadBalancer.choose(discoveredInstances.available(tried));
+            tried.add(LoadBalancer.key(serviceInstance));
+
+            URI uri = endpoint(serviceInstance);
+            Map<String, Object> payload = payload(new ApiQuery(table, fields, conditions, limit, offset), offset, null);
 
             // Send the request and receive the response
-            Map<String, Object> response = restTemplate.postForObject(uri, payload, Map.class);
+            return post(serviceInstance, uri, payload);
+        });
+    }
+
+    // Non-blocking queryApi on the pooled WebClient. Each retry picks a new instance, skipping the
+    // ones this call already tried; 4xx responses are not retried. Callers outside Reactor can use toFuture().
+    public Mono<Map<String, Object>> queryApiAsync(ApiQuery query) {
+        return queryApiAsync(payload(query, query.getOffset(), null));
+    }
+
+    private Mono<Map<String, Object>> queryApiAsync(Map<String, Object> payload) {
+        return Mono.defer(() -> {
+            retryBudget.deposit();
+            Set<String> tried = ConcurrentHashMap.newKeySet();
+            return Mono.defer(() -> hedgingEnabled ? hedged(payload, tried) : attempt(payload, tried))
+                    .retryWhen(retrySpec());
+        });
+    }
+
+    // Walks the rows of all pages of the query, query.getLimit() rows per page starting at its offset,
+    // while the next pages are prefetched. Close the iterator when stopping before the end.
+    // A keyset cursor cannot start mid-result, so queries with an offset always page by offset.
+    public PageIterator iterate(ApiQuery query) {
+        return new PageIterator((offset, cursor) -> queryApiAsync(payload(query, offset, cursor)),
+                query.getLimit(), query.getOffset(), keysetPaging && query.getOffset() == 0, prefetchPages, maxBufferedRows);
+    }
+
+    // Stream over iterate(query); closing the stream cancels the prefetch
+    public Stream<Map<String, Object>> stream(ApiQuery query) {
+        PageIterator pages = iterate(query);
+        Spliterator<Map<String, Object>> rows = Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(rows, false).onClose(pages::close);
+    }
+
+    // Runs the queries concurrently, at most max-concurrency at a time, and returns the responses in
+    // query order. Fails as soon as one query fails for good; the others still in flight are cancelled.
+    public Mono<List<Map<String, Object>>> queryAll(List<ApiQuery> queries) {
+        return Flux.fromIterable(queries)
+                .flatMapSequential(this::queryApiAsync, maxConcurrency)
+                .collectList();
+    }
+
+    private Mono<Map<String, Object>> attempt(Map<String, Object> payload, Set<String> tried) {
+        return Mono.defer(() -> {
+            ServiceInstance serviceInstance = loadBalancer.choose(discoveredInstances.available(tried));
+            tried.add(LoadBalancer.key(serviceInstance));
+            return postAsync(serviceInstance, payload);
+        });
+    }
+
+    // Same rules as the RetryTemplate: jittered exponential backoff, at most maxAttempts, no retry
+    // of 4xx responses, and each retry withdrawn from the retry budget
+    private Retry retrySpec() {
+        return Retry.from(signals -> {
+            DecorrelatedJitterBackOffPolicy.Delays delays = backOffPolicy.delays();
+            return signals.concatMap(signal -> {
+                Throwable failure = signal.failure();
+                if (isClientError(failure) || signal.totalRetries() + 1 >= maxAttempts || !retryBudget.tryWithdraw()) {
+                    return Mono.error(failure);
+                }
+                return Mono.delay(Duration.ofMillis(delays.next()));
+            });
+        });
+    }
+
+    // Starts one attempt and, if it has not answered after the hedge delay, a second one on another
+    // instance. The first response wins and the other attempt is cancelled. The call fails once
+    // every attempt started has failed, or right away on a 4xx.
+    private Mono<Map<String, Object>> hedged(Map<String, Object> payload, Set<String> tried) {
+        return Mono.create(sink -> {
+            AtomicInteger pending = new AtomicInteger(1);
+            Disposable.Composite attempts = Disposables.composite();
+            Consumer<Throwable> onError = e -> {
+                if (pending.decrementAndGet() == 0 || isClientError(e)) {
+                    sink.error(e);
+                }
+            };
+            sink.onDispose(attempts);
 
+            attempts.add(attempt(payload, tried).subscribe(sink::success, onError, sink::success));
+            attempts.add(Mono.delay(hedgeDelay()).subscribe(tick -> {
+                if (retryBudget.tryWithdraw()) {
+                    pending.incrementAndGet();
+                    attempts.add(attempt(payload, tried).subscribe(sink::success, onError, sink::success));
+                }
+            }));
+        });
+    }
+
+    private Duration hedgeDelay() {
+        long percentileNanos = latencies.percentileNanos();
+        long delayMillis = percentileNanos < 0 ? hedgeDefaultDelayMillis : TimeUnit.NANOSECONDS.toMillis(percentileNanos);
+        return Duration.ofMillis(Math.max(hedgeMinDelayMillis, delayMillis));
+    }
+
+    private static URI endpoint(ServiceInstance serviceInstance) {
+        return UriComponentsBuilder.fromUri(serviceInstance.getUri())
+                .path("/api/v1/dsl/query")
+                .build()
+                .toUri();
+    }
+
+    // A non-null cursor asks for keyset pagination: "" for the first page, then the previous page's next_cursor
+    private static Map<String, Object> payload(ApiQuery query, int offset, String cursor) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("select", query.getFields());
+        payload.put("from", query.getTable());
+        payload.put("where", query.getConditions());
+        payload.put("limit", query.getLimit());
+        if (cursor != null) {
+            payload.put("search_after", cursor);
+        } else {
+            payload.put("offset", offset);
+        }
+        return payload;
+    }
+
+    // Reports the outcome to the balancer; instances that fail for reasons other than a bad request are ejected
+    private Map<String, Object> post(ServiceInstance serviceInstance, URI uri, Map<String, Object> payload) {
+        loadBalancer.onStart(serviceInstance);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Map<String, Object> response = restTemplate.postForObject(uri, payload, Map.class);
+            success = true;
+            latencies.record(System.nanoTime() - start);
             return response;
+        } catch (HttpClientErrorException e) {
+            // 4xx: the instance answered, the request itself is at fault
+            success = true;
+            throw e;
+        } catch (RestClientException e) {
+            discoveredInstances.eject(serviceInstance);
+            throw e;
+        } finally {
+            loadBalancer.onComplete(serviceInstance, System.nanoTime() - start, success);
+        }
+    }
 
+    // Async counterpart of post(): same balancer reporting and ejection rules
+    private Mono<Map<String, Object>> postAsync(ServiceInstance serviceInstance, Map<String, Object> payload) {
+        return Mono.defer(() -> {
+            loadBalancer.onStart(serviceInstance);
+            long start = System.nanoTime();
+            return apiWebClient.post()
+                    .uri(endpoint(serviceInstance))
+                    .bodyValue(payload)
+                    .retrieve()
+                    .bodyToMono(RESPONSE_TYPE)
+                    .timeout(Duration.ofMillis(requestTimeoutMillis))
+                    .doOnSuccess(response -> {
+                        long latency = System.nanoTime() - start;
+                        latencies.record(latency);
+                        loadBalancer.onComplete(serviceInstance, latency, true);
+                    })
+                    .doOnError(e -> {
+                        boolean answered = isClientError(e);
+                        if (!answered) {
+                            discoveredInstances.eject(serviceInstance);
+                        }
+                        loadBalancer.onComplete(serviceInstance, System.nanoTime() - start, answered);
+                    })
+                    // Cancelled by the caller (e.g. a failed fan-out): not the instance's fault
+                    .doOnCancel(() -> loadBalancer.onComplete(serviceInstance, System.nanoTime() - start, true));
         });
     }
+
+    private static boolean isClientError(Throwable e) {
+        return e instanceof WebClientResponseException
+                && ((WebClientResponseException) e).getStatusCode().is4xxClientError();
+    }
+
+    private static Set<String> triedInstances(RetryContext context) {
+        Set<String> tried = (Set<String>) context.getAttribute(TRIED_INSTANCES);
+        if (tried == null) {
+            tried = new HashSet<>();
+            context.setAttribute(TRIED_INSTANCES, tried);
+        }
+        return tried;
+    }
 }
@@ -0,0 +1,44 @@
+package com.api.pg.client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One DSL query for ApiClientService: the same arguments as {@link ApiClientService#queryApi}.
+ */
+public final class ApiQuery {
+
+    private final String table;
+    private final List<String> fields;
+    private final Map<String, Object> conditions;
+    private final int limit;
+    private final int offset;
+
+    public ApiQuery(String table, List<String> fields, Map<String, Object> conditions, int limit, int offset) {
+        this.table = table;
+        this.fields = fields;
+        this.conditions = conditions;
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public Map<String, Object> getConditions() {
+        return conditions;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+}
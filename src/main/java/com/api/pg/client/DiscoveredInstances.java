@@ -0,0 +1,115 @@
+package com.api.pg.client;
+
+import com.api.pg.client.lb.LoadBalancer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local copy of the API service's instance list, refreshed from the DiscoveryClient in the
+ * background instead of on every request. Instances that fail are ejected for a while so the
+ * next attempts go elsewhere; if every instance is ejected, all of them are offered again
+ * rather than failing outright.
+ */
+@Component
+public class DiscoveredInstances {
+
+    private static final Logger log = LoggerFactory.getLogger(DiscoveredInstances.class);
+
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final long refreshIntervalMillis;
+    private final long ejectionMillis;
+
+    private final Map<String, Long> ejectedUntil = new ConcurrentHashMap<>();
+    private volatile List<ServiceInstance> instances = Collections.emptyList();
+    private ScheduledExecutorService refresher;
+
+    public DiscoveredInstances(DiscoveryClient discoveryClient,
+                               @Value("${api-client.service-id:api-service}") String serviceId,
+                               @Value("${api-client.discovery.refresh-interval-ms:30000}") long refreshIntervalMillis,
+                               @Value("${api-client.ejection-ms:30000}") long ejectionMillis) {
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.ejectionMillis = ejectionMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-client-discovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    // Keeps the previous list when discovery is unreachable
+    void refresh() {
+        try {
+            instances = Collections.unmodifiableList(new ArrayList<>(discoveryClient.getInstances(serviceId)));
+        } catch (Exception e) {
+            log.warn("Refreshing instances of {} failed, keeping {} cached: {}", serviceId, instances.size(), e.getMessage());
+        }
+    }
+
+    // Instances that are not ejected and not in the exclusion set (e.g. already tried for this request).
+    // Falls back to ejected and then excluded instances when nothing else is left.
+    public List<ServiceInstance> available(Set<String> excludedKeys) {
+        List<ServiceInstance> current = instances;
+        if (current.isEmpty()) {
+            // First request before the initial refresh finished, or the service was not registered yet
+            refresh();
+            current = instances;
+            if (current.isEmpty()) {
+                throw new IllegalStateException("API service is not available");
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        List<ServiceInstance> healthy = new ArrayList<>();
+        List<ServiceInstance> notExcluded = new ArrayList<>();
+        for (ServiceInstance instance : current) {
+            String key = LoadBalancer.key(instance);
+            if (excludedKeys.contains(key)) {
+                continue;
+            }
+            notExcluded.add(instance);
+            Long until = ejectedUntil.get(key);
+            if (until == null || until <= now) {
+                healthy.add(instance);
+            }
+        }
+        if (!healthy.isEmpty()) {
+            return healthy;
+        }
+        return !notExcluded.isEmpty() ? notExcluded : current;
+    }
+
+    public void eject(ServiceInstance instance) {
+        String key = LoadBalancer.key(instance);
+        ejectedUntil.put(key, System.currentTimeMillis() + ejectionMillis);
+        log.warn("Ejecting {} ({}) for {} ms", key, instance.getUri(), ejectionMillis);
+    }
+}
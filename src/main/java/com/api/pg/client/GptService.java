@@ -1,85 +1,156 @@
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+package com.api.pg.client;
+
+import com.api.pg.client.cache.DiskResponseCache;
+import com.api.pg.client.context.MappedCsvReader;
+import com.api.pg.client.context.TrustedContext;
+import com.api.pg.client.context.WatchedFile;
+import com.api.pg.client.prompt.EntityLines;
+import com.api.pg.client.prompt.PromptChunker;
+import com.api.pg.client.retry.DecorrelatedJitterBackOffPolicy;
+import com.api.pg.config.GptConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
-import java.io.BufferedReader;
-import java.nio.file.Files;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class GptService {
 
+    private static final Logger log = LoggerFactory.getLogger(GptService.class);
+
     @Autowired
-    private RestTemplate restTemplate;
+    private WebClient gptWebClient;
 
     @Autowired
-    private GptConfig gptConfig;  // Inject the GptConfig to get the CSV file paths
+    private GptConfig gptConfig;  // Inject the GptConfig to get the CSV file paths and API settings
 
-    private static final String OPENAI_API_URL = "https://api.openai.com/v1/completions";
-    private static final String OPENAI_MODEL = "text-davinci-003";
-    private static final String OPENAI_API_KEY = "your-openai-api-key"; // Set your OpenAI API key here
+    private static final ParameterizedTypeReference<Map<String, Object>> RESPONSE_TYPE =
+            new ParameterizedTypeReference<Map<String, Object>>() {};
 
-    // Function to read queryText from the CSV file
-    public String readQueryTextCsv() {
-        StringBuilder queryText = new StringBuilder();
+    // Both CSVs are parsed once and kept in memory; they are re-parsed only after the file changed
+    private WatchedFile<String> queryTextFile;
+    private WatchedFile<TrustedContext> trustedContextFile;
 
-        // Get the Query Text CSV file path from the configuration
-        String queryTextCsvFilePath = gptConfig.getQueryTextCsvfile();
+    private DecorrelatedJitterBackOffPolicy backOffPolicy;
 
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(queryTextCsvFilePath));
-             CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader())) {
+    // Completions of identical requests are served from disk; null when the cache is disabled
+    private DiskResponseCache responseCache;
 
-            // Read query text from the CSV file
-            for (CSVRecord record : csvParser.getRecords()) {
-                queryText.append(record.get("query_text")).append("\n");
-            }
+    @PostConstruct
+    public void init() throws IOException {
+        if (gptConfig.isCacheEnabled()) {
+            responseCache = new DiskResponseCache(Paths.get(gptConfig.getCachePath()), gptConfig.getCacheMaxBytes(),
+                    TimeUnit.HOURS.toMillis(gptConfig.getCacheTtlHours()));
+        }
+        backOffPolicy = new DecorrelatedJitterBackOffPolicy(gptConfig.getBackoffDelayMillis(), gptConfig.getMaxBackoffDelayMillis());
+        queryTextFile = new WatchedFile<>(Paths.get(gptConfig.getQueryTextCsvfile()), GptService::loadQueryText);
+        trustedContextFile = new WatchedFile<>(Paths.get(gptConfig.getTrustedContextCsvfile()), TrustedContext::load);
+    }
 
+    @PreDestroy
+    public void close() throws IOException {
+        queryTextFile.close();
+        trustedContextFile.close();
+        if (responseCache != null) {
+            responseCache.close();
+        }
+    }
+
+    // Function to read queryText from the CSV file
+    public String readQueryTextCsv() {
+        try {
+            return queryTextFile.get();
         } catch (Exception e) {
             throw new RuntimeException("Error reading Query Text CSV file: " + e.getMessage(), e);
         }
-
-        return queryText.toString();
     }
 
     // Function to read trusted context from the CSV file
     public String readTrustedContextCsv() {
-        StringBuilder trustedContext = new StringBuilder();
-
-        // Get the Trusted Context CSV file path from the configuration
-        String trustedContextCsvFilePath = gptConfig.getTrustedContextCsvfile();
+        TrustedContext context = trustedContext();
 
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(trustedContextCsvFilePath));
-             CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader())) {
+        // Build the trusted source data to be included in the prompt
+        StringBuilder trustedContext = new StringBuilder();
+        for (int row = 0; row < context.size(); row++) {
+            context.appendTo(trustedContext, row);
+        }
+        return trustedContext.toString();
+    }
 
-            // Read trusted context (account data, etc.) from the CSV file
-            for (CSVRecord record : csvParser.getRecords()) {
-                String account = record.get("account");
-                String holderName = record.get("holder_name");
-                String balance = record.get("balance");
-                String currency = record.get("currency");
+    // Trusted context limited to the accounts the text mentions by account number, BIC or holder name
+    public String readRelevantTrustedContext(String queryText) {
+        TrustedContext context = trustedContext();
+        BitSet rows = context.getIndex().match(queryText);
 
-                // Build the trusted source data to be included in the prompt
-                trustedContext.append(String.format("Account: %s, Holder: %s, Balance: %s, Currency: %s\n",
-                        account, holderName, balance, currency));
-            }
+        StringBuilder trustedContext = new StringBuilder();
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            context.appendTo(trustedContext, row);
+        }
+        return trustedContext.toString();
+    }
 
+    private TrustedContext trustedContext() {
+        try {
+            return trustedContextFile.get();
         } catch (Exception e) {
             throw new RuntimeException("Error reading Trusted Context CSV file: " + e.getMessage(), e);
         }
+    }
 
-        return trustedContext.toString();
+    // One line per query_text value
+    private static String loadQueryText(Path file) throws IOException {
+        StringBuilder queryText = new StringBuilder();
+        int[] column = {-1};
+        MappedCsvReader.read(file, new MappedCsvReader.RecordHandler() {
+            @Override
+            public void onHeader(String[] header) {
+                column[0] = MappedCsvReader.column(header, "query_text");
+                if (column[0] < 0) {
+                    throw new IllegalArgumentException("Query Text CSV has no query_text column");
+                }
+            }
+
+            @Override
+            public void onRecord(String[] fields) {
+                queryText.append(fields[column[0]]).append("\n");
+            }
+        });
+        return queryText.toString();
     }
 
     // Function to construct the GPT prompt based on the query text and trusted context data
     public String constructGptPrompt(String queryText, String trustedContext) {
         // Construct the full prompt with the query text and trusted context
         StringBuilder prompt = new StringBuilder();
-        prompt.append("Using the trusted account data below, identify custom entities (ACCOUNT_NUMBER, BIC, HOLDER_NAME, BALANCE, CURRENCY) in the following text:\n\n");
+        prompt.append("Using the trusted account data below, identify custom entities (ACCOUNT_NUMBER, BIC, HOLDER_NAME, BALANCE, CURRENCY) in the following text.\n");
+        prompt.append("List each entity on its own line as TYPE: value.\n\n");
         prompt.append("Trusted Account Data:\n");
         prompt.append(trustedContext).append("\n");
         prompt.append("Text: ").append(queryText).append("\n");
@@ -87,59 +158,150 @@ public class GptService {
         return prompt.toString();
     }
 
-    // Function to send the constructed prompt to OpenAI's GPT API and get the response
+    // Function to send the constructed prompt to the completion API and get the response
     public String getGptResponse(String prompt) {
         try {
-            // Create the headers for the API call
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + OPENAI_API_KEY);
-
-            // Build the request body with the prompt
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", OPENAI_MODEL);
-            requestBody.put("prompt", prompt);
-            requestBody.put("max_tokens", 150);
-
-            // Create the HTTP entity
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-            // Call OpenAI's API using RestTemplate
-            ResponseEntity<Map> response = restTemplate.exchange(OPENAI_API_URL, HttpMethod.POST, entity, Map.class);
-
-            // Extract the GPT response from the API call
-            Map<String, Object> responseBody = response.getBody();
-            if (responseBody != null && responseBody.containsKey("choices")) {
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) responseBody.get("choices");
-                if (choices != null && !choices.isEmpty()) {
-                    return (String) choices.get(0).get("text");
-                }
-            }
-            throw new RuntimeException("No response from GPT API");
+            return completion(prompt).block();
         } catch (Exception e) {
             throw new RuntimeException("Error in calling GPT API: " + e.getMessage(), e);
         }
     }
 
-    // Main method to handle the GPT flow
+    // One completion, from the response cache when the same model, parameters and prompt were
+    // answered before. Only successful completions are cached. The cache does file I/O and its writes
+    // are serialized, so lookups and writes run on the bounded elastic scheduler rather than on the
+    // event loop thread that delivers the completion.
+    private Mono<String> completion(String prompt) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("max_tokens", gptConfig.getMaxTokens());
+        if (responseCache == null) {
+            return callCompletionApi(prompt, parameters);
+        }
+
+        String cacheKey = DiskResponseCache.key(gptConfig.getModel(), parameters, prompt);
+        return Mono.fromCallable(() -> responseCache.get(cacheKey))
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(Mono.defer(() -> callCompletionApi(prompt, parameters)
+                        .flatMap(text -> Mono.fromRunnable(() -> cacheCompletion(cacheKey, text))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .thenReturn(text))));
+    }
+
+    private void cacheCompletion(String cacheKey, String text) {
+        try {
+            responseCache.put(cacheKey, text);
+        } catch (IOException e) {
+            log.warn("Unable to cache completion: {}", e.getMessage());
+        }
+    }
+
+    // Rate limits (429), server errors and timeouts are retried, after the Retry-After the API
+    // asks for or else a jittered exponential backoff
+    private Mono<String> callCompletionApi(String prompt, Map<String, Object> parameters) {
+        // Build the request body with the prompt
+        Map<String, Object> requestBody = new HashMap<>(parameters);
+        requestBody.put("model", gptConfig.getModel());
+        requestBody.put("prompt", prompt);
+
+        return gptWebClient.post()
+                .uri(gptConfig.getApiUrl())
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    if (!gptConfig.getApiKey().isEmpty()) {
+                        headers.setBearerAuth(gptConfig.getApiKey());
+                    }
+                })
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(RESPONSE_TYPE)
+                .timeout(Duration.ofMillis(gptConfig.getRequestTimeoutMillis()))
+                .map(GptService::completionText)
+                .retryWhen(Retry.from(signals -> {
+                    DecorrelatedJitterBackOffPolicy.Delays delays = backOffPolicy.delays();
+                    return signals.concatMap(signal -> {
+                        Throwable failure = signal.failure();
+                        if (!isRetryable(failure) || signal.totalRetries() >= gptConfig.getMaxRetries()) {
+                            return Mono.error(failure);
+                        }
+                        Duration retryAfter = retryAfter(failure);
+                        return Mono.delay(retryAfter != null ? retryAfter : Duration.ofMillis(delays.next()));
+                    });
+                }));
+    }
+
+    // Extract the completion text from the API response
+    private static String completionText(Map<String, Object> responseBody) {
+        if (responseBody != null && responseBody.containsKey("choices")) {
+            List<Map<String, Object>> choices = (List<Map<String, Object>>) responseBody.get("choices");
+            if (choices != null && !choices.isEmpty()) {
+                return (String) choices.get(0).get("text");
+            }
+        }
+        throw new RuntimeException("No response from GPT API");
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException) {
+            HttpStatus status = ((WebClientResponseException) e).getStatusCode();
+            return status == HttpStatus.TOO_MANY_REQUESTS || status.is5xxServerError();
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    // Retry-After in seconds or as an HTTP date; null when absent or unreadable
+    private Duration retryAfter(Throwable e) {
+        if (!(e instanceof WebClientResponseException)) {
+            return null;
+        }
+        String retryAfter = ((WebClientResponseException) e).getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter == null) {
+            return null;
+        }
+        try {
+            Duration delay = retryAfter.trim().matches("\\d+")
+                    ? Duration.ofSeconds(Long.parseLong(retryAfter.trim()))
+                    : Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (RuntimeException ignored) {
+            return null;
+        }
+    }
+
+    // Main method to handle the GPT flow. The query text is split into chunks sized so that the
+    // instructions, trusted context, chunk and completion fit the model's context window; chunks
+    // are sent in parallel and the entities found in each are merged without duplicates.
     public Map<String, Object> detectEntities() {
         try {
             // Read Query Text CSV
             String queryText = readQueryTextCsv();
 
-            // Read Trusted Context CSV
-            String trustedContext = readTrustedContextCsv();
+            // Read Trusted Context CSV: only the accounts the text refers to, unless filtering is off
+            String trustedContext = gptConfig.isContextFilter() ? readRelevantTrustedContext(queryText) : readTrustedContextCsv();
 
-            // Construct the GPT prompt
-            String prompt = constructGptPrompt(queryText, trustedContext);
+            // Construct one GPT prompt per chunk
+            int fixedTokens = PromptChunker.estimateTokens(constructGptPrompt("", trustedContext));
+            int chunkTokens = gptConfig.getContextWindowTokens() - gptConfig.getMaxTokens() - fixedTokens;
+            if (chunkTokens < 1) {
+                throw new IllegalStateException("Trusted context (about " + fixedTokens + " tokens) leaves no room for query text in a "
+                        + gptConfig.getContextWindowTokens() + "-token context window");
+            }
+            List<String> prompts = new ArrayList<>();
+            for (String chunk : PromptChunker.chunk(queryText, chunkTokens)) {
+                prompts.add(constructGptPrompt(chunk, trustedContext));
+            }
 
-            // Get the GPT response
-            String gptResponse = getGptResponse(prompt);
+            // Get the GPT responses, in chunk order
+            List<String> gptResponses = Flux.fromIterable(prompts)
+                    .flatMapSequential(this::completion, Math.max(1, gptConfig.getParallelism()))
+                    .collectList()
+                    .block();
+            List<Map<String, String>> entities = EntityLines.merge(gptResponses);
 
             // Prepare the response data
             Map<String, Object> responseData = new HashMap<>();
-            responseData.put("prompt", prompt);
-            responseData.put("gpt_response", gptResponse);
+            responseData.put("prompts", prompts);
+            responseData.put("entities", entities);
+            responseData.put("gpt_response", EntityLines.format(entities));
 
             return responseData;
         } catch (Exception e) {
@@ -0,0 +1,45 @@
+package com.api.pg.client;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window over the latencies of the most recent successful requests, used to pick the
+ * hedging delay. The percentile is recomputed every {@code RECOMPUTE_EVERY} samples rather than
+ * per request, so reading it is a volatile load.
+ */
+class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final long[] samples;
+    private final double percentile;
+    private int next;
+    private int count;
+    private long recorded;
+    private volatile long percentileNanos = -1;
+
+    LatencyWindow(int size, double percentile) {
+        if (size < 1 || percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Invalid latency window: size " + size + ", percentile " + percentile);
+        }
+        this.samples = new long[size];
+        this.percentile = percentile;
+    }
+
+    synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++recorded % RECOMPUTE_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile * count) - 1;
+            percentileNanos = sorted[Math.max(0, Math.min(count - 1, rank))];
+        }
+    }
+
+    // -1 until the first RECOMPUTE_EVERY samples were recorded
+    long percentileNanos() {
+        return percentileNanos;
+    }
+}
@@ -0,0 +1,186 @@
+package com.api.pg.client;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Iterates over the rows of every page of a query, fetching the next pages in the background
+ * while the caller works through the current one. Pages are fetched one after another, and the
+ * next fetch starts only while fewer than {@code prefetchPages} pages and {@code maxBufferedRows}
+ * rows are waiting, so a slow consumer bounds memory instead of the result size.
+ * <p>
+ * The first request asks for keyset pagination (an empty "search_after"). If the server answers
+ * with "next_cursor", later pages continue from the cursor; otherwise they advance the offset.
+ * Not thread-safe for consumers; close it to cancel the fetch in flight when stopping early.
+ */
+public class PageIterator implements Iterator<Map<String, Object>>, AutoCloseable {
+
+    // Fetches one page: the cursor is null in offset mode, "" for the first keyset page
+    @FunctionalInterface
+    public interface PageFetcher {
+        Mono<Map<String, Object>> fetch(int offset, String cursor);
+    }
+
+    private final PageFetcher fetcher;
+    private final int pageSize;
+    private final int prefetchPages;
+    private final int maxBufferedRows;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Deque<List<Map<String, Object>>> pages = new ArrayDeque<>();
+    private Iterator<Map<String, Object>> current = Collections.emptyIterator();
+    private int bufferedRows;
+    private int offset;
+    private String cursor;
+    private boolean fetching;
+    private boolean exhausted;
+    private boolean closed;
+    private RuntimeException failure;
+    private Disposable inFlight;
+
+    public PageIterator(PageFetcher fetcher, int pageSize, int startOffset, boolean keyset,
+                        int prefetchPages, int maxBufferedRows) {
+        if (pageSize < 1 || prefetchPages < 1 || maxBufferedRows < 1) {
+            throw new IllegalArgumentException("Invalid paging: page size " + pageSize + ", prefetch " + prefetchPages
+                    + ", max buffered rows " + maxBufferedRows);
+        }
+        this.fetcher = fetcher;
+        this.pageSize = pageSize;
+        this.prefetchPages = prefetchPages;
+        this.maxBufferedRows = maxBufferedRows;
+        this.offset = startOffset;
+        this.cursor = keyset ? "" : null;
+
+        lock.lock();
+        try {
+            fetchNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        lock.lock();
+        try {
+            while (true) {
+                if (current.hasNext()) {
+                    return true;
+                }
+                List<Map<String, Object>> page = pages.poll();
+                if (page != null) {
+                    bufferedRows -= page.size();
+                    current = page.iterator();
+                    fetchNext();
+                    continue;
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                if (exhausted || closed) {
+                    return false;
+                }
+                fetchNext();
+                changed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            pages.clear();
+            current = Collections.emptyIterator();
+            if (inFlight != null) {
+                inFlight.dispose();
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Starts the next fetch unless one is running, there is no next page, or the buffer is full.
+    // An empty buffer always allows a fetch, so a page larger than the row cap cannot stall the iterator.
+    private void fetchNext() {
+        if (fetching || exhausted || closed || failure != null) {
+            return;
+        }
+        if (!pages.isEmpty() && (pages.size() >= prefetchPages || bufferedRows >= maxBufferedRows)) {
+            return;
+        }
+        fetching = true;
+        // An empty response body counts as an empty page, which ends the iteration
+        inFlight = fetcher.fetch(offset, cursor)
+                .defaultIfEmpty(Collections.emptyMap())
+                .subscribe(this::onPage, this::onError);
+    }
+
+    private void onPage(Map<String, Object> response) {
+        lock.lock();
+        try {
+            fetching = false;
+            if (closed) {
+                return;
+            }
+            List<Map<String, Object>> hits = hits(response);
+            if (!hits.isEmpty()) {
+                pages.add(hits);
+                bufferedRows += hits.size();
+            }
+            if (cursor != null && response.containsKey("next_cursor")) {
+                // Keyset continuation; a null cursor marks the last page
+                cursor = (String) response.get("next_cursor");
+                exhausted = cursor == null;
+            } else {
+                // The server does not do keyset pagination for this query: fall back to offsets
+                cursor = null;
+                offset += hits.size();
+                exhausted = hits.size() < pageSize;
+            }
+            changed.signalAll();
+            fetchNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onError(Throwable e) {
+        lock.lock();
+        try {
+            fetching = false;
+            failure = e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static List<Map<String, Object>> hits(Map<String, Object> response) {
+        List<Map<String, Object>> hits = (List<Map<String, Object>>) response.get("hits");
+        return hits != null ? hits : Collections.emptyList();
+    }
+}
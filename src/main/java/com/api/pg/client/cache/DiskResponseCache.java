@@ -0,0 +1,292 @@
+package com.api.pg.client.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent cache of completion responses, keyed by the SHA-256 of model, parameters and prompt.
+ * Entries are appended to a log file and located through an in-memory index rebuilt from the log
+ * on startup. Lookups take no lock: an index read plus one positional read of the file. Writes are
+ * serialized. Once the log outgrows the size bound it is compacted: expired entries are dropped and
+ * the most recently used ones are kept up to three quarters of the bound, then the new file replaces
+ * the old one.
+ * <p>
+ * Record layout: length of the rest (int), key (32 bytes), created-at millis (long),
+ * value (UTF-8), CRC32 of key, created-at and value (int). A torn record at the end of the file
+ * (crash during a write) fails its length or CRC check and is cut off on startup.
+ */
+public class DiskResponseCache implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskResponseCache.class);
+
+    private static final int KEY_BYTES = 32;
+    private static final int HEADER_BYTES = 4 + KEY_BYTES + 8;
+
+    private final Path file;
+    private final long maxBytes;
+    private final long ttlMillis;
+    private volatile Segment segment;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+
+    public DiskResponseCache(Path file, long maxBytes, long ttlMillis) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+        if (this.file.getParent() != null) {
+            Files.createDirectories(this.file.getParent());
+        }
+        this.segment = open(this.file);
+        log.info("Response cache {}: {} entries, {} bytes", this.file, segment.index.size(), segment.size);
+    }
+
+    public static String key(String model, Map<String, Object> parameters, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            // Parameters in key order, so the map's iteration order does not change the key
+            new TreeMap<>(parameters).forEach((name, value) -> {
+                digest.update((name + "=" + value).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            });
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Null on a miss, an expired entry, or a read that raced with compaction
+    public String get(String key) {
+        Segment current = segment;
+        Entry entry = current.index.get(key);
+        if (entry == null || isExpired(entry, System.currentTimeMillis())) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try {
+            ByteBuffer value = ByteBuffer.allocate(entry.valueLength);
+            while (value.hasRemaining()) {
+                if (current.channel.read(value, entry.valueOffset + value.position()) < 0) {
+                    throw new IOException("Unexpected end of cache file");
+                }
+            }
+            entry.lastAccess = System.currentTimeMillis();
+            hits.incrementAndGet();
+            return new String(value.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // The segment was closed by a compaction after this lookup started
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    public synchronized void put(String key, String value) throws IOException {
+        byte[] keyBytes = fromHex(key);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        long createdAt = System.currentTimeMillis();
+        Segment current = segment;
+        long offset = current.size;
+        current.channel.write(record(keyBytes, createdAt, valueBytes), offset);
+        current.size += recordBytes(valueBytes.length);
+        // Published only after the bytes are in the file, so readers never see a partial value
+        current.index.put(key, new Entry(offset + HEADER_BYTES, valueBytes.length, createdAt));
+
+        if (current.size > maxBytes) {
+            compact();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        segment.channel.force(false);
+        segment.channel.close();
+    }
+
+    public Map<String, Object> getStats() {
+        Segment current = segment;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", current.index.size());
+        stats.put("bytes", current.size);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("compactions", compactions.get());
+        return stats;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlMillis > 0 && now - entry.createdAt > ttlMillis;
+    }
+
+    // Rewrites the live, most recently used entries into a new file and swaps it in
+    private void compact() throws IOException {
+        Segment old = segment;
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, Entry>> live = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : old.index.entrySet()) {
+            if (!isExpired(entry.getValue(), now)) {
+                live.add(entry);
+            }
+        }
+        live.sort((a, b) -> Long.compare(b.getValue().lastAccess, a.getValue().lastAccess));
+
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        long budget = maxBytes * 3 / 4;
+        long written = 0;
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, Entry> entry : live) {
+                Entry value = entry.getValue();
+                long size = recordBytes(value.valueLength);
+                if (written + size > budget) {
+                    break;
+                }
+                ByteBuffer bytes = ByteBuffer.allocate(value.valueLength);
+                while (bytes.hasRemaining()) {
+                    old.channel.read(bytes, value.valueOffset + bytes.position());
+                }
+                out.write(record(fromHex(entry.getKey()), value.createdAt, bytes.array()), written);
+                written += size;
+            }
+            out.force(false);
+        }
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Segment replacement = open(file);
+        // Keep recency across the swap
+        replacement.index.forEach((key, entry) -> {
+            Entry previous = old.index.get(key);
+            if (previous != null) {
+                entry.lastAccess = previous.lastAccess;
+            }
+        });
+        segment = replacement;
+        old.channel.close();
+        compactions.incrementAndGet();
+        log.info("Compacted response cache {}: {} of {} entries kept, {} bytes", file, replacement.index.size(), old.index.size(), written);
+    }
+
+    // Replays the log into a fresh index, cutting off a torn record at the end
+    private static Segment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Map<String, Entry> index = new ConcurrentHashMap<>();
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+        while (position + 4 <= size) {
+            lengthBuffer.clear();
+            channel.read(lengthBuffer, position);
+            int length = lengthBuffer.getInt(0);
+            if (length < KEY_BYTES + 8 + 4 || position + 4 + length > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            while (body.hasRemaining()) {
+                channel.read(body, position + 4 + body.position());
+            }
+            int valueLength = length - KEY_BYTES - 8 - 4;
+            CRC32 crc = new CRC32();
+            crc.update(body.array(), 0, length - 4);
+            if ((int) crc.getValue() != body.getInt(length - 4)) {
+                break;
+            }
+            byte[] key = new byte[KEY_BYTES];
+            System.arraycopy(body.array(), 0, key, 0, KEY_BYTES);
+            long createdAt = body.getLong(KEY_BYTES);
+            // Later records for the same key replace earlier ones
+            index.put(toHex(key), new Entry(position + HEADER_BYTES, valueLength, createdAt));
+            position += 4 + length;
+        }
+        if (position < size) {
+            log.warn("Truncating response cache {} at {} of {} bytes (incomplete record)", file, position, size);
+            channel.truncate(position);
+        }
+        return new Segment(channel, index, position);
+    }
+
+    private static ByteBuffer record(byte[] key, long createdAt, byte[] value) {
+        ByteBuffer record = ByteBuffer.allocate((int) recordBytes(value.length));
+        record.putInt(record.capacity() - 4);
+        record.put(key);
+        record.putLong(createdAt);
+        record.put(value);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, record.position() - 4);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    private static long recordBytes(int valueLength) {
+        return HEADER_BYTES + valueLength + 4;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] fromHex(String hex) {
+        if (hex.length() != KEY_BYTES * 2) {
+            throw new IllegalArgumentException("Not a SHA-256 key: " + hex);
+        }
+        byte[] bytes = new byte[KEY_BYTES];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    private static final class Segment {
+        final FileChannel channel;
+        final Map<String, Entry> index;
+        long size;
+
+        Segment(FileChannel channel, Map<String, Entry> index, long size) {
+            this.channel = channel;
+            this.index = index;
+            this.size = size;
+        }
+    }
+
+    private static final class Entry {
+        final long valueOffset;
+        final int valueLength;
+        final long createdAt;
+        volatile long lastAccess;
+
+        Entry(long valueOffset, int valueLength, long createdAt) {
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+    }
+}
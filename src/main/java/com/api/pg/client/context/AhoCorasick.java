@@ -0,0 +1,177 @@
+package com.api.pg.client.context;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton: finds every occurrence of any of a set of patterns in one pass over
+ * the text, in time linear in the text length regardless of how many patterns there are.
+ * The trie is stored in flat arrays with transitions in one open-addressing table keyed by
+ * (node, char), so hundreds of thousands of patterns cost a few int/long arrays rather than
+ * an object per node.
+ */
+final class AhoCorasick {
+
+    @FunctionalInterface
+    interface MatchHandler {
+        // end is the index of the last matched character
+        void onMatch(int pattern, int end);
+    }
+
+    private final Transitions transitions = new Transitions();
+    private int[] fail;
+    private int[] terminal;     // pattern ending at the node, or -1
+    private int[] outputLink;   // nearest node on the fail chain that ends a pattern, or -1
+    private int[] firstChild;   // build only: children as linked lists, with their characters
+    private int[] nextSibling;
+    private char[] nodeChars;
+    private int nodes = 1;
+    private final int[] patternLengths;
+
+    // Pattern ids are the map values and must be 0..patterns.size()-1
+    AhoCorasick(Map<String, Integer> patterns) {
+        int capacity = 16;
+        for (String pattern : patterns.keySet()) {
+            capacity += pattern.length();
+        }
+        terminal = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        nodeChars = new char[capacity];
+        Arrays.fill(terminal, -1);
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        patternLengths = new int[patterns.size()];
+
+        patterns.forEach((pattern, id) -> {
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                int child = transitions.get(node, c);
+                if (child < 0) {
+                    child = nodes++;
+                    transitions.put(node, c, child);
+                    nodeChars[child] = c;
+                    nextSibling[child] = firstChild[node];
+                    firstChild[node] = child;
+                }
+                node = child;
+            }
+            terminal[node] = id;
+            patternLengths[id] = pattern.length();
+        });
+        buildFailLinks();
+        firstChild = null;
+        nextSibling = null;
+        nodeChars = null;
+    }
+
+    // Breadth-first, so a node's fail target is always finished before the node itself
+    private void buildFailLinks() {
+        fail = new int[nodes];
+        outputLink = new int[nodes];
+        Arrays.fill(outputLink, -1);
+        int[] queue = new int[nodes];
+        int head = 0;
+        int tail = 0;
+        for (int child = firstChild[0]; child >= 0; child = nextSibling[child]) {
+            queue[tail++] = child;
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                char c = nodeChars[child];
+                int target = fail[node];
+                while (target > 0 && transitions.get(target, c) < 0) {
+                    target = fail[target];
+                }
+                int next = transitions.get(target, c);
+                fail[child] = next >= 0 ? next : 0;
+                outputLink[child] = terminal[fail[child]] >= 0 ? fail[child] : outputLink[fail[child]];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    int patternLength(int pattern) {
+        return patternLengths[pattern];
+    }
+
+    void search(CharSequence text, MatchHandler handler) {
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = transitions.get(node, c)) < 0 && node > 0) {
+                node = fail[node];
+            }
+            node = Math.max(next, 0);
+            for (int output = terminal[node] >= 0 ? node : outputLink[node]; output >= 0; output = outputLink[output]) {
+                handler.onMatch(terminal[output], i);
+            }
+        }
+    }
+
+    // (node, char) -> child, open addressing with linear probing
+    private static final class Transitions {
+        private static final long EMPTY = -1;
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private int size;
+
+        Transitions() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int get(int node, char c) {
+            long key = key(node, c);
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(int node, char c, int child) {
+            if (size * 2 >= keys.length) {
+                resize();
+            }
+            insert(key(node, c), child);
+            size++;
+        }
+
+        private void insert(long key, int value) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            Arrays.fill(keys, EMPTY);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static long key(int node, char c) {
+            return ((long) node << 16) | c;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
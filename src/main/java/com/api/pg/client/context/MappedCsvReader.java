@@ -0,0 +1,136 @@
+package com.api.pg.client.context;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams the records of a UTF-8 CSV file (RFC 4180: quoted fields, doubled quotes, CRLF or LF)
+ * from a memory-mapped view of the file, handing each record to a callback as it is parsed.
+ * Nothing but the current record is held, so a large file costs no more heap than its widest row.
+ * The first record is the header.
+ */
+public final class MappedCsvReader {
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        // Called once, before the first record
+        default void onHeader(String[] header) {
+        }
+
+        // fields[i] belongs to header column i; missing trailing fields are null
+        void onRecord(String[] fields);
+    }
+
+    private MappedCsvReader() {
+    }
+
+    // Returns the header; the delimiters and quotes are ASCII, so scanning bytes is safe for UTF-8
+    public static String[] read(Path file, RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("CSV file too large to map: " + file + " (" + size + " bytes)");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return parse(buffer, handler);
+        }
+    }
+
+    private static String[] parse(MappedByteBuffer buffer, RecordHandler handler) {
+        byte[] field = new byte[256];
+        List<String> record = new ArrayList<>();
+        String[] header = null;
+        int length = 0;
+        boolean quoted = false;
+        boolean fieldStarted = false;
+
+        // Skip a UTF-8 byte order mark
+        if (buffer.remaining() >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+            buffer.position(3);
+        }
+
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (quoted) {
+                if (b == '"') {
+                    if (buffer.hasRemaining() && buffer.get(buffer.position()) == '"') {
+                        buffer.get();
+                        field = append(field, length++, b);
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field = append(field, length++, b);
+                }
+            } else if (b == '"' && length == 0) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (b == ',') {
+                record.add(new String(field, 0, length, StandardCharsets.UTF_8));
+                length = 0;
+                fieldStarted = true;
+            } else if (b == '\n' || b == '\r') {
+                if (b == '\r' && buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+                    buffer.get();
+                }
+                if (fieldStarted || length > 0 || !record.isEmpty()) {
+                    record.add(new String(field, 0, length, StandardCharsets.UTF_8));
+                    header = emit(header, record, handler);
+                }
+                record.clear();
+                length = 0;
+                fieldStarted = false;
+            } else {
+                field = append(field, length++, b);
+            }
+        }
+        // Last record without a trailing newline
+        if (fieldStarted || length > 0 || !record.isEmpty()) {
+            record.add(new String(field, 0, length, StandardCharsets.UTF_8));
+            header = emit(header, record, handler);
+        }
+        return header != null ? header : new String[0];
+    }
+
+    private static String[] emit(String[] header, List<String> record, RecordHandler handler) {
+        if (header == null) {
+            String[] names = record.toArray(new String[0]);
+            for (int i = 0; i < names.length; i++) {
+                names[i] = names[i].trim();
+            }
+            handler.onHeader(names);
+            return names;
+        }
+        String[] fields = new String[header.length];
+        for (int i = 0; i < fields.length && i < record.size(); i++) {
+            fields[i] = record.get(i);
+        }
+        handler.onRecord(fields);
+        return header;
+    }
+
+    private static byte[] append(byte[] field, int length, byte b) {
+        if (length == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[length] = b;
+        return field;
+    }
+
+    // Index of the named header column, or -1
+    public static int column(String[] header, String name) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,123 @@
+package com.api.pg.client.context;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed trusted-context CSV (columns account, holder_name, balance, currency and an optional
+ * bic) held column by column in plain arrays rather than as one record object per row. Currency
+ * codes repeat across the whole book and are stored once each. The lookup index is built with
+ * each load.
+ */
+public final class TrustedContext {
+
+    private final String[] accounts;
+    private final String[] holderNames;
+    private final String[] balances;
+    private final String[] currencies;
+    private final String[] bics;
+    private final TrustedContextIndex index;
+
+    private TrustedContext(String[] accounts, String[] holderNames, String[] balances, String[] currencies, String[] bics) {
+        this.accounts = accounts;
+        this.holderNames = holderNames;
+        this.balances = balances;
+        this.currencies = currencies;
+        this.bics = bics;
+        this.index = TrustedContextIndex.build(this);
+    }
+
+    public static TrustedContext load(Path file) throws IOException {
+        Builder builder = new Builder();
+        MappedCsvReader.read(file, builder);
+        return builder.build();
+    }
+
+    public int size() {
+        return accounts.length;
+    }
+
+    public String getAccount(int row) {
+        return accounts[row];
+    }
+
+    public String getHolderName(int row) {
+        return holderNames[row];
+    }
+
+    // Null when the file has no bic column
+    public String getBic(int row) {
+        return bics != null ? bics[row] : null;
+    }
+
+    public TrustedContextIndex getIndex() {
+        return index;
+    }
+
+    // Appends the row as one line of trusted source data for the prompt
+    public void appendTo(StringBuilder prompt, int row) {
+        prompt.append("Account: ").append(accounts[row]);
+        if (bics != null) {
+            prompt.append(", BIC: ").append(bics[row]);
+        }
+        prompt.append(", Holder: ").append(holderNames[row])
+                .append(", Balance: ").append(balances[row])
+                .append(", Currency: ").append(currencies[row])
+                .append('\n');
+    }
+
+    private static final class Builder implements MappedCsvReader.RecordHandler {
+
+        private final Map<String, String> currencyCodes = new HashMap<>();
+        private final List<String> accounts = new ArrayList<>();
+        private final List<String> holderNames = new ArrayList<>();
+        private final List<String> balances = new ArrayList<>();
+        private final List<String> currencies = new ArrayList<>();
+        private final List<String> bics = new ArrayList<>();
+        private int account;
+        private int holderName;
+        private int balance;
+        private int currency;
+        private int bic;
+
+        @Override
+        public void onHeader(String[] header) {
+            account = required(header, "account");
+            holderName = required(header, "holder_name");
+            balance = required(header, "balance");
+            currency = required(header, "currency");
+            bic = MappedCsvReader.column(header, "bic");
+        }
+
+        @Override
+        public void onRecord(String[] fields) {
+            accounts.add(fields[account]);
+            holderNames.add(fields[holderName]);
+            balances.add(fields[balance]);
+            String code = fields[currency];
+            currencies.add(code != null ? currencyCodes.computeIfAbsent(code, c -> c) : null);
+            if (bic >= 0) {
+                bics.add(fields[bic]);
+            }
+        }
+
+        TrustedContext build() {
+            return new TrustedContext(accounts.toArray(new String[0]), holderNames.toArray(new String[0]),
+                    balances.toArray(new String[0]), currencies.toArray(new String[0]),
+                    bic >= 0 ? bics.toArray(new String[0]) : null);
+        }
+
+        private static int required(String[] header, String name) {
+            int index = MappedCsvReader.column(header, name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Trusted context CSV has no " + name + " column; header: " + Arrays.toString(header));
+            }
+            return index;
+        }
+    }
+}
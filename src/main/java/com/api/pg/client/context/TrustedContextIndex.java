@@ -0,0 +1,134 @@
+package com.api.pg.client.context;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the trusted-context rows a text refers to, so a prompt carries only those accounts.
+ * Account numbers and BICs are matched with separators removed ("DE89 3704 ..." and
+ * "DE893704..." are the same account). Holder names are matched as whole words after
+ * lower-casing and stripping accents and punctuation. Both are single-pass Aho-Corasick scans,
+ * so matching costs the same however large the account book is.
+ */
+public final class TrustedContextIndex {
+
+    // Shorter keys would match by chance all over ordinary text
+    private static final int MIN_CODE_LENGTH = 6;
+    private static final int MIN_NAME_LENGTH = 4;
+
+    // A key shared by more rows than this (typically a bank's BIC) does not single out an account
+    private static final int MAX_ROWS_PER_KEY = 50;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final AhoCorasick codes;
+    private final int[][] codeRows;
+    private final AhoCorasick names;
+    private final int[][] nameRows;
+
+    private TrustedContextIndex(AhoCorasick codes, int[][] codeRows, AhoCorasick names, int[][] nameRows) {
+        this.codes = codes;
+        this.codeRows = codeRows;
+        this.names = names;
+        this.nameRows = nameRows;
+    }
+
+    static TrustedContextIndex build(TrustedContext context) {
+        Map<String, List<Integer>> codes = new HashMap<>();
+        Map<String, List<Integer>> names = new HashMap<>();
+        for (int row = 0; row < context.size(); row++) {
+            add(codes, compact(context.getAccount(row)), MIN_CODE_LENGTH, row);
+            add(codes, compact(context.getBic(row)), MIN_CODE_LENGTH, row);
+            add(names, words(context.getHolderName(row)), MIN_NAME_LENGTH, row);
+        }
+        Map<String, Integer> codeIds = new HashMap<>();
+        int[][] codeRows = ids(codes, codeIds);
+        Map<String, Integer> nameIds = new HashMap<>();
+        int[][] nameRows = ids(names, nameIds);
+        return new TrustedContextIndex(new AhoCorasick(codeIds), codeRows, new AhoCorasick(nameIds), nameRows);
+    }
+
+    // Rows whose account number, BIC or holder name occurs in the text
+    public BitSet match(String text) {
+        BitSet rows = new BitSet();
+        codes.search(compact(text), (pattern, end) -> set(rows, codeRows[pattern]));
+
+        String normalized = words(text);
+        names.search(normalized, (pattern, end) -> {
+            int start = end - names.patternLength(pattern) + 1;
+            boolean wordStart = start == 0 || normalized.charAt(start - 1) == ' ';
+            boolean wordEnd = end == normalized.length() - 1 || normalized.charAt(end + 1) == ' ';
+            if (wordStart && wordEnd) {
+                set(rows, nameRows[pattern]);
+            }
+        });
+        return rows;
+    }
+
+    // Lower-case letters and digits only
+    static String compact(String value) {
+        if (value == null) {
+            return "";
+        }
+        String folded = fold(value);
+        StringBuilder compact = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                compact.append(c);
+            }
+        }
+        return compact.toString();
+    }
+
+    // Lower-case words of letters and digits, separated by single spaces
+    static String words(String value) {
+        if (value == null) {
+            return "";
+        }
+        String folded = fold(value);
+        StringBuilder words = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                words.append(c);
+            } else if (words.length() > 0 && words.charAt(words.length() - 1) != ' ') {
+                words.append(' ');
+            }
+        }
+        int end = words.length();
+        return end > 0 && words.charAt(end - 1) == ' ' ? words.substring(0, end - 1) : words.toString();
+    }
+
+    private static String fold(String value) {
+        return MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+    }
+
+    private static void add(Map<String, List<Integer>> keys, String key, int minLength, int row) {
+        if (key.length() >= minLength) {
+            keys.computeIfAbsent(key, k -> new ArrayList<>(1)).add(row);
+        }
+    }
+
+    private static int[][] ids(Map<String, List<Integer>> keys, Map<String, Integer> ids) {
+        keys.values().removeIf(keyRows -> keyRows.size() > MAX_ROWS_PER_KEY);
+        int[][] rows = new int[keys.size()][];
+        keys.forEach((key, keyRows) -> {
+            int id = ids.size();
+            ids.put(key, id);
+            rows[id] = keyRows.stream().mapToInt(Integer::intValue).toArray();
+        });
+        return rows;
+    }
+
+    private static void set(BitSet rows, int[] matched) {
+        for (int row : matched) {
+            rows.set(row);
+        }
+    }
+}
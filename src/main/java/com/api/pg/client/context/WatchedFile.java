@@ -0,0 +1,136 @@
+package com.api.pg.client.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * The parsed content of a file, loaded once and reloaded only after the file changed.
+ * A watcher thread marks the snapshot dirty when the directory reports an event for the file;
+ * the next {@link #get()} then compares modification time and size and re-parses only if
+ * either differs. A failed reload (e.g. the file is being rewritten) keeps the previous
+ * snapshot and is retried on the next call.
+ */
+public class WatchedFile<T> implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchedFile.class);
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(Path file) throws IOException;
+    }
+
+    private final Path file;
+    private final Loader<T> loader;
+    private final WatchService watchService;
+    private volatile boolean watching;
+    private volatile boolean dirty = true;
+    private volatile Snapshot<T> snapshot;
+
+    public WatchedFile(Path file, Loader<T> loader) {
+        this.file = file.toAbsolutePath();
+        this.loader = loader;
+        this.watchService = watch(this.file);
+    }
+
+    public T get() throws IOException {
+        Snapshot<T> current = snapshot;
+        if (current != null && !dirty) {
+            return current.value;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && !dirty) {
+                return current.value;
+            }
+            // Cleared before reading, so a change during the reload marks it dirty again
+            dirty = !watching;
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (current != null && current.modified == modified && current.size == attributes.size()) {
+                return current.value;
+            }
+            try {
+                snapshot = new Snapshot<>(loader.load(file), modified, attributes.size());
+                log.info("Loaded {} ({} bytes)", file, attributes.size());
+            } catch (IOException | RuntimeException | InternalError e) {
+                // InternalError: the mapped file was truncated while being read
+                dirty = true;
+                if (current == null) {
+                    throw e instanceof IOException ? (IOException) e : new IOException("Unable to load " + file, e);
+                }
+                log.warn("Reloading {} failed, keeping the previous version: {}", file, e.getMessage());
+            }
+            return snapshot.value;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    // Without a watch service (unsupported file system) every get() checks mtime and size instead
+    private WatchService watch(Path path) {
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            path.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            Thread thread = new Thread(() -> awaitChanges(service), "file-watch-" + path.getFileName());
+            thread.setDaemon(true);
+            watching = true;
+            thread.start();
+            return service;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("Cannot watch {}, checking it on every access: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private void awaitChanges(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // OVERFLOW has no context: events may have been lost, so assume the file changed
+                    if (event.context() == null || file.getFileName().equals(event.context())) {
+                        dirty = true;
+                    }
+                }
+                if (!key.reset()) {
+                    // The directory went away; fall back to checking on every access
+                    watching = false;
+                    dirty = true;
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private static final class Snapshot<T> {
+        final T value;
+        final long modified;
+        final long size;
+
+        Snapshot(T value, long modified, long size) {
+            this.value = value;
+            this.modified = modified;
+            this.size = size;
+        }
+    }
+}
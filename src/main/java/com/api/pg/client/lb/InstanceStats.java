@@ -0,0 +1,38 @@
+package com.api.pg.client.lb;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-flight request count and exponentially weighted moving average of latency for one instance.
+ */
+final class InstanceStats {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Double bits of the EWMA in nanoseconds; 0 until the first response
+    private final AtomicLong ewmaNanos = new AtomicLong(Double.doubleToLongBits(0));
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    double getEwmaNanos() {
+        return Double.longBitsToDouble(ewmaNanos.get());
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    void completed(long latencyNanos, double alpha) {
+        inFlight.decrementAndGet();
+        long current;
+        long updated;
+        do {
+            current = ewmaNanos.get();
+            double ewma = Double.longBitsToDouble(current);
+            double next = ewma == 0 ? latencyNanos : ewma + alpha * (latencyNanos - ewma);
+            updated = Double.doubleToLongBits(next);
+        } while (!ewmaNanos.compareAndSet(current, updated));
+    }
+}
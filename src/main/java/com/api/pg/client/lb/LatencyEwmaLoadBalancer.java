@@ -0,0 +1,83 @@
+package com.api.pg.client.lb;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sends to the instance with the lowest expected wait: its latency EWMA scaled by the requests
+ * already in flight to it. Instances without a measurement yet are scored with the median EWMA of the
+ * measured candidates, so a new instance gets a fair share rather than all the traffic until its first
+ * response (with nothing measured, only in-flight counts matter). A failed request
+ * counts as {@code failurePenaltyNanos}, so an erroring instance is avoided even if it fails fast.
+ */
+public class LatencyEwmaLoadBalancer implements LoadBalancer {
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final double alpha;
+    private final long failurePenaltyNanos;
+
+    public LatencyEwmaLoadBalancer(double alpha, long failurePenaltyNanos) {
+        this.alpha = alpha;
+        this.failurePenaltyNanos = failurePenaltyNanos;
+    }
+
+    @Override
+    public ServiceInstance choose(List<ServiceInstance> candidates) {
+        InstanceStats[] candidateStats = new InstanceStats[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            candidateStats[i] = stats(candidates.get(i));
+        }
+        double unmeasuredEwmaNanos = medianEwmaNanos(candidateStats);
+
+        // Start at a random candidate so equal scores do not always resolve to the first one
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        ServiceInstance best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < candidates.size(); i++) {
+            int index = (offset + i) % candidates.size();
+            double ewmaNanos = candidateStats[index].getEwmaNanos();
+            double score = (ewmaNanos > 0 ? ewmaNanos : unmeasuredEwmaNanos) * (candidateStats[index].getInFlight() + 1);
+            if (score < bestScore) {
+                best = candidates.get(index);
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    // Median EWMA of the measured candidates; 1 when none is measured, leaving in-flight counts to decide
+    private static double medianEwmaNanos(InstanceStats[] candidateStats) {
+        double[] measured = new double[candidateStats.length];
+        int count = 0;
+        for (InstanceStats instanceStats : candidateStats) {
+            double ewmaNanos = instanceStats.getEwmaNanos();
+            if (ewmaNanos > 0) {
+                measured[count++] = ewmaNanos;
+            }
+        }
+        if (count == 0) {
+            return 1;
+        }
+        Arrays.sort(measured, 0, count);
+        return count % 2 == 1 ? measured[count / 2] : (measured[count / 2 - 1] + measured[count / 2]) / 2;
+    }
+
+    @Override
+    public void onStart(ServiceInstance instance) {
+        stats(instance).started();
+    }
+
+    @Override
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean success) {
+        stats(instance).completed(success ? latencyNanos : Math.max(latencyNanos, failurePenaltyNanos), alpha);
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(LoadBalancer.key(instance), key -> new InstanceStats());
+    }
+}
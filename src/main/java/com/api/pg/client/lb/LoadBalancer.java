@@ -0,0 +1,27 @@
+package com.api.pg.client.lb;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.List;
+
+/**
+ * Picks the instance for the next request and learns from how requests went.
+ * Implementations keep their per-instance state keyed by {@link #key(ServiceInstance)}.
+ */
+public interface LoadBalancer {
+
+    // Candidates are never empty
+    ServiceInstance choose(List<ServiceInstance> candidates);
+
+    // Called when a request to the instance starts
+    default void onStart(ServiceInstance instance) {
+    }
+
+    // Called when it finishes, successfully or not, with its latency
+    default void onComplete(ServiceInstance instance, long latencyNanos, boolean success) {
+    }
+
+    static String key(ServiceInstance instance) {
+        return instance.getInstanceId() != null ? instance.getInstanceId() : instance.getUri().toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.api.pg.client.lb;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices: samples two random candidates and sends to the one with fewer requests
+ * in flight. Nearly as even as always picking the least loaded instance, without every client
+ * herding onto the same one.
+ */
+public class PowerOfTwoChoicesLoadBalancer implements LoadBalancer {
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    @Override
+    public ServiceInstance choose(List<ServiceInstance> candidates) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return stats(a).getInFlight() <= stats(b).getInFlight() ? a : b;
+    }
+
+    @Override
+    public void onStart(ServiceInstance instance) {
+        stats(instance).started();
+    }
+
+    @Override
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean success) {
+        stats(instance).completed(latencyNanos, 0);
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(LoadBalancer.key(instance), key -> new InstanceStats());
+    }
+}
@@ -0,0 +1,55 @@
+package com.api.pg.client.prompt;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Merges the entities found in the responses for the individual chunks. Responses list one
+ * entity per line as "TYPE: value" (see the prompt); the same entity found in several chunks is
+ * kept once, in the order it was first seen. Lines that are not entities are ignored.
+ */
+public final class EntityLines {
+
+    private static final Pattern ENTITY = Pattern.compile("^\\s*(?:[-*]\\s*)?([A-Z_]+)\\s*:\\s*(.+?)\\s*$");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private EntityLines() {
+    }
+
+    public static List<Map<String, String>> merge(List<String> responses) {
+        Map<String, Map<String, String>> entities = new LinkedHashMap<>();
+        for (String response : responses) {
+            if (response == null) {
+                continue;
+            }
+            for (String line : response.split("\n")) {
+                Matcher matcher = ENTITY.matcher(line);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                String type = matcher.group(1);
+                String value = WHITESPACE.matcher(matcher.group(2)).replaceAll(" ");
+                Map<String, String> entity = new LinkedHashMap<>();
+                entity.put("type", type);
+                entity.put("value", value);
+                // Values differing only in case are the same entity
+                entities.putIfAbsent(type + "\u0000" + value.toLowerCase(Locale.ROOT), entity);
+            }
+        }
+        return new ArrayList<>(entities.values());
+    }
+
+    // The merged entities in the response format, one per line
+    public static String format(List<Map<String, String>> entities) {
+        StringBuilder text = new StringBuilder();
+        for (Map<String, String> entity : entities) {
+            text.append(entity.get("type")).append(": ").append(entity.get("value")).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.api.pg.client.prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits query text into chunks that each fit a token budget. Chunks break at line ends where
+ * possible, then at whitespace, and only as a last resort inside a word, so an entity is rarely
+ * cut in two. Tokens are estimated from the character count (about four characters per token
+ * for English text with the GPT tokenizers), rounded up to stay on the safe side.
+ */
+public final class PromptChunker {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private PromptChunker() {
+    }
+
+    public static int estimateTokens(CharSequence text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    public static List<String> chunk(String text, int maxTokensPerChunk) {
+        if (maxTokensPerChunk < 1) {
+            throw new IllegalArgumentException("Token budget too small for any text: " + maxTokensPerChunk);
+        }
+        int maxChars = maxTokensPerChunk * CHARS_PER_TOKEN;
+        List<String> chunks = new ArrayList<>();
+        StringBuilder chunk = new StringBuilder();
+        for (String line : text.split("\n")) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (chunk.length() > 0 && chunk.length() + 1 + line.length() > maxChars) {
+                chunks.add(chunk.toString());
+                chunk.setLength(0);
+            }
+            // A single line over the budget is split on its own
+            while (line.length() > maxChars) {
+                int cut = line.lastIndexOf(' ', maxChars);
+                cut = cut > 0 ? cut : maxChars;
+                chunks.add(line.substring(0, cut));
+                line = line.substring(cut).trim();
+            }
+            if (chunk.length() > 0) {
+                chunk.append('\n');
+            }
+            chunk.append(line);
+        }
+        if (chunk.length() > 0) {
+            chunks.add(chunk.toString());
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,56 @@
+package com.api.pg.client.retry;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+
+/**
+ * Wraps a RetryPolicy so that each retry the delegate allows must also be paid for from a
+ * {@link RetryBudget}. Opening a context (one call) makes the deposit.
+ */
+public class BudgetedRetryPolicy implements RetryPolicy {
+
+    // RetryTemplate asks canRetry more than once per attempt; the decision is kept per retry count
+    private static final String DECIDED_FOR = "retry-budget.decided-for";
+    private static final String GRANTED = "retry-budget.granted";
+
+    private final RetryPolicy delegate;
+    private final RetryBudget budget;
+
+    public BudgetedRetryPolicy(RetryPolicy delegate, RetryBudget budget) {
+        this.delegate = delegate;
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        if (!delegate.canRetry(context)) {
+            return false;
+        }
+        int retryCount = context.getRetryCount();
+        if (retryCount == 0) {
+            // The first attempt is not a retry
+            return true;
+        }
+        if (!Integer.valueOf(retryCount).equals(context.getAttribute(DECIDED_FOR))) {
+            context.setAttribute(DECIDED_FOR, retryCount);
+            context.setAttribute(GRANTED, budget.tryWithdraw());
+        }
+        return (Boolean) context.getAttribute(GRANTED);
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        budget.deposit();
+        return delegate.open(parent);
+    }
+
+    @Override
+    public void close(RetryContext context) {
+        delegate.close(context);
+    }
+
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        delegate.registerThrowable(context, throwable);
+    }
+}
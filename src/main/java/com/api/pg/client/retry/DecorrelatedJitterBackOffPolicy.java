@@ -0,0 +1,61 @@
+package com.api.pg.client.retry;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with decorrelated jitter: each delay is drawn uniformly from
+ * [base, 3 * previous delay], capped at maxDelay. Clients that failed together spread their
+ * retries out instead of coming back in lockstep, while the expected delay still grows.
+ */
+public class DecorrelatedJitterBackOffPolicy implements BackOffPolicy {
+
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Sleeper sleeper = new ThreadWaitSleeper();
+
+    public DecorrelatedJitterBackOffPolicy(long baseDelayMillis, long maxDelayMillis) {
+        if (baseDelayMillis <= 0 || maxDelayMillis < baseDelayMillis) {
+            throw new IllegalArgumentException("Invalid backoff delays: base " + baseDelayMillis + ", max " + maxDelayMillis);
+        }
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    // A fresh delay sequence, for callers that back off without a RetryTemplate
+    public Delays delays() {
+        return new Delays();
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new Delays();
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        try {
+            sleeper.sleep(((Delays) backOffContext).next());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    public class Delays implements BackOffContext {
+
+        private long previous = baseDelayMillis;
+
+        public long next() {
+            long upper = Math.min(maxDelayMillis, previous * 3);
+            previous = upper <= baseDelayMillis ? baseDelayMillis : ThreadLocalRandom.current().nextLong(baseDelayMillis, upper + 1);
+            return previous;
+        }
+    }
+}
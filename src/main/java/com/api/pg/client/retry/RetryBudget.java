@@ -0,0 +1,60 @@
+package com.api.pg.client.retry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that caps retries (and hedged requests) at a fraction of normal traffic.
+ * Every call deposits {@code ratio} tokens, every retry withdraws one; with ratio 0.1 at most
+ * one extra request is sent per ten calls once the initial balance is spent. During an outage
+ * the bucket runs dry and calls fail fast instead of multiplying the load on the survivors.
+ */
+public class RetryBudget {
+
+    // Balance is kept in thousandths of a token so fractional deposits add up exactly
+    private static final long SCALE = 1000;
+
+    private final long depositPerCall;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    private final AtomicLong granted = new AtomicLong();
+    private final AtomicLong denied = new AtomicLong();
+
+    public RetryBudget(double ratio, int maxTokens) {
+        if (ratio < 0 || maxTokens < 1) {
+            throw new IllegalArgumentException("Invalid retry budget: ratio " + ratio + ", max tokens " + maxTokens);
+        }
+        this.depositPerCall = Math.round(ratio * SCALE);
+        this.maxBalance = maxTokens * SCALE;
+        // Start full so the first failures after startup can still be retried
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void deposit() {
+        balance.accumulateAndGet(depositPerCall, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    // Takes one token for a retry; false when the budget is spent
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                denied.incrementAndGet();
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        granted.incrementAndGet();
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("tokens", balance.get() / (double) SCALE);
+        stats.put("granted", granted.get());
+        stats.put("denied", denied.get());
+        return stats;
+    }
+}
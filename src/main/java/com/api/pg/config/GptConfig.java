@@ -0,0 +1,162 @@
+package com.api.pg.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class GptConfig {
+
+    // CSV with a query_text column: the text entities are detected in
+    @Value("${gpt.query-text-csvfile}")
+    private String queryTextCsvfile;
+
+    // CSV with account, holder_name, balance and currency columns: the trusted account data
+    @Value("${gpt.trusted-context-csvfile}")
+    private String trustedContextCsvfile;
+
+    // Send only the trusted accounts the query text mentions instead of the whole book
+    @Value("${gpt.context-filter:true}")
+    private boolean contextFilter;
+
+    @Value("${gpt.api-url:https://api.openai.com/v1/completions}")
+    private String apiUrl;
+
+    @Value("${gpt.api-key:}")
+    private String apiKey;
+
+    @Value("${gpt.model:text-davinci-003}")
+    private String model;
+
+    // Completion tokens requested per chunk
+    @Value("${gpt.max-tokens:256}")
+    private int maxTokens;
+
+    // Prompt plus completion tokens the model accepts
+    @Value("${gpt.context-window-tokens:4097}")
+    private int contextWindowTokens;
+
+    // Chunk requests in flight at once
+    @Value("${gpt.parallelism:4}")
+    private int parallelism;
+
+    // Retries per chunk after 429 or 5xx responses and timeouts
+    @Value("${gpt.max-retries:5}")
+    private int maxRetries;
+
+    // Backoff when the response carries no Retry-After
+    @Value("${gpt.backoff-delay-ms:500}")
+    private long backoffDelayMillis;
+
+    @Value("${gpt.max-backoff-delay-ms:30000}")
+    private long maxBackoffDelayMillis;
+
+    // Completions take far longer than API queries, so they get their own pool and timeout
+    @Value("${gpt.request-timeout-ms:60000}")
+    private long requestTimeoutMillis;
+
+    // On-disk cache of completions keyed by model, parameters and prompt
+    @Value("${gpt.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${gpt.cache.path:data/gpt-response-cache.log}")
+    private String cachePath;
+
+    @Value("${gpt.cache.max-bytes:268435456}")
+    private long cacheMaxBytes;
+
+    @Value("${gpt.cache.ttl-hours:168}")
+    private long cacheTtlHours;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider gptConnectionProvider() {
+        return ConnectionProvider.builder("gpt")
+                .maxConnections(Math.max(1, parallelism))
+                .build();
+    }
+
+    @Bean
+    public WebClient gptWebClient() {
+        HttpClient httpClient = HttpClient.create(gptConnectionProvider())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                .responseTimeout(Duration.ofMillis(requestTimeoutMillis));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    public String getQueryTextCsvfile() {
+        return queryTextCsvfile;
+    }
+
+    public String getTrustedContextCsvfile() {
+        return trustedContextCsvfile;
+    }
+
+    public boolean isContextFilter() {
+        return contextFilter;
+    }
+
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public int getContextWindowTokens() {
+        return contextWindowTokens;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getBackoffDelayMillis() {
+        return backoffDelayMillis;
+    }
+
+    public long getMaxBackoffDelayMillis() {
+        return maxBackoffDelayMillis;
+    }
+
+    public long getRequestTimeoutMillis() {
+        return requestTimeoutMillis;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public String getCachePath() {
+        return cachePath;
+    }
+
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    public long getCacheTtlHours() {
+        return cacheTtlHours;
+    }
+}
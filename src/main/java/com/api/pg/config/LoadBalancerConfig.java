@@ -0,0 +1,41 @@
+package com.api.pg.config;
+
+import com.api.pg.client.lb.LatencyEwmaLoadBalancer;
+import com.api.pg.client.lb.LoadBalancer;
+import com.api.pg.client.lb.PowerOfTwoChoicesLoadBalancer;
+import com.api.pg.client.lb.RoundRobinLoadBalancer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class LoadBalancerConfig {
+
+    // round-robin, p2c (power of two choices on in-flight requests) or ewma (latency EWMA)
+    @Value("${api-client.load-balancer.strategy:p2c}")
+    private String strategy;
+
+    // Weight of the newest sample in the latency EWMA
+    @Value("${api-client.load-balancer.ewma-alpha:0.3}")
+    private double ewmaAlpha;
+
+    // Latency a failed request counts as in the EWMA
+    @Value("${api-client.load-balancer.failure-penalty-ms:5000}")
+    private long failurePenaltyMillis;
+
+    @Bean
+    public LoadBalancer loadBalancer() {
+        switch (strategy) {
+            case "round-robin":
+                return new RoundRobinLoadBalancer();
+            case "p2c":
+                return new PowerOfTwoChoicesLoadBalancer();
+            case "ewma":
+                return new LatencyEwmaLoadBalancer(ewmaAlpha, TimeUnit.MILLISECONDS.toNanos(failurePenaltyMillis));
+            default:
+                throw new IllegalArgumentException("Unknown load balancer strategy: " + strategy);
+        }
+    }
+}
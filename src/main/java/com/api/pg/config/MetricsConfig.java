@@ -0,0 +1,29 @@
+package com.api.pg.config;
+
+import com.api.pg.metrics.TimedDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "query.metrics.checkout-timing", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    // Wraps the DataSource so connection checkout shows up as its own phase in the query metrics.
+    // Static so the post-processor is registered before the DataSource is created.
+    @Bean
+    public static BeanPostProcessor timedDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof TimedDataSource)) {
+                    return new TimedDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.api.pg.config;
+
+import com.api.pg.routing.PostgresReplicaLagProbe;
+import com.api.pg.routing.ReplicaLagProbe;
+import com.api.pg.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured DataSource with a {@link ReplicaRoutingDataSource} when
+ * query.replicas.enabled is set: spring.datasource is the primary and each entry of
+ * query.replicas.nodes (url, username, password, maximum-pool-size) a read replica.
+ * Tests can register their own {@link ReplicaLagProbe} bean to run against embedded databases.
+ */
+@Configuration
+@ConditionalOnProperty(name = "query.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Value("${query.replicas.check-interval-ms:1000}")
+    private long checkIntervalMillis;
+
+    @Bean
+    @ConditionalOnMissingBean(ReplicaLagProbe.class)
+    public ReplicaLagProbe replicaLagProbe() {
+        return new PostgresReplicaLagProbe();
+    }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, ReplicaLagProbe replicaLagProbe) {
+        DataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+
+        Bindable<List<Map<String, String>>> nodesType = Bindable.of(ResolvableType.forClassWithGenerics(List.class,
+                ResolvableType.forClassWithGenerics(Map.class, String.class, String.class)));
+        List<Map<String, String>> nodes = Binder.get(environment).bind("query.replicas.nodes", nodesType)
+                .orElse(Collections.emptyList());
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            String name = "replica-" + i;
+            replicas.put(name, replicaDataSource(name, nodes.get(i), properties));
+        }
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replicas, replicaLagProbe);
+        routingDataSource.start(checkIntervalMillis);
+        return routingDataSource;
+    }
+
+    // Replicas default to the primary's credentials
+    private DataSource replicaDataSource(String name, Map<String, String> node, DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(node.get("url"));
+        dataSource.setUsername(node.getOrDefault("username", properties.getUsername()));
+        dataSource.setPassword(node.getOrDefault("password", properties.getPassword()));
+        dataSource.setMaximumPoolSize(Integer.parseInt(node.getOrDefault("maximum-pool-size", "10")));
+        dataSource.setReadOnly(true);
+        dataSource.setPoolName(name);
+        return dataSource;
+    }
+}
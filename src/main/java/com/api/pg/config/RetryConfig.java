@@ -1,13 +1,17 @@
-
 package com.api.pg.config;
 
+import com.api.pg.client.retry.BudgetedRetryPolicy;
+import com.api.pg.client.retry.DecorrelatedJitterBackOffPolicy;
+import com.api.pg.client.retry.RetryBudget;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.retry.backoff.FixedBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Collections;
 
 @Configuration
 @EnableRetry
@@ -16,23 +20,41 @@ public class RetryConfig {
     @Value("${spring.retry.maxAttempts}")
     private int maxAttempts;
 
+    // Base of the jittered exponential backoff
     @Value("${spring.retry.backoffDelay}")
     private long backoffDelay;
 
+    @Value("${spring.retry.maxBackoffDelay:2000}")
+    private long maxBackoffDelay;
+
+    // Tokens earned per call; one token pays for one retry or hedged request
+    @Value("${api-client.retry-budget.ratio:0.1}")
+    private double budgetRatio;
+
+    @Value("${api-client.retry-budget.max-tokens:10}")
+    private int budgetMaxTokens;
+
     @Bean
-    public RetryTemplate retryTemplate() {
-        RetryTemplate retryTemplate = new RetryTemplate();
+    public RetryBudget retryBudget() {
+        return new RetryBudget(budgetRatio, budgetMaxTokens);
+    }
+
+    @Bean
+    public DecorrelatedJitterBackOffPolicy backOffPolicy() {
+        return new DecorrelatedJitterBackOffPolicy(backoffDelay, maxBackoffDelay);
+    }
 
-        // Define retry policy
-        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy();
-        retryPolicy.setMaxAttempts(maxAttempts);
+    @Bean
+    public RetryTemplate retryTemplate(RetryBudget retryBudget, DecorrelatedJitterBackOffPolicy backOffPolicy) {
+        RetryTemplate retryTemplate = new RetryTemplate();
 
-        // Define backoff policy
-        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
-        backOffPolicy.setBackOffPeriod(backoffDelay);
+        // Define retry policy: 4xx responses are the request's fault and are not retried,
+        // and every retry has to fit in the retry budget
+        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(maxAttempts,
+                Collections.singletonMap(HttpClientErrorException.class, false), true, true);
 
         // Set policies in the template
-        retryTemplate.setRetryPolicy(retryPolicy);
+        retryTemplate.setRetryPolicy(new BudgetedRetryPolicy(retryPolicy, retryBudget));
         retryTemplate.setBackOffPolicy(backOffPolicy);
 
         return retryTemplate;
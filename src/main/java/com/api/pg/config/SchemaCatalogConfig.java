@@ -0,0 +1,59 @@
+package com.api.pg.config;
+
+import com.api.pg.QueryConfig;
+import com.api.pg.schema.SchemaCatalog;
+import com.api.pg.schema.SchemaCatalogLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class SchemaCatalogConfig {
+
+    // Tables exposed through the ES-style DSL endpoint
+    @Value("#{${dsl.allowed.tables}}")
+    private List<Map<String, Object>> dslAllowedTables;
+
+    // The JSON query endpoint (QueryTranslator) only sees query.allowed-tables
+    @Bean
+    public SchemaCatalog querySchemaCatalog(JdbcTemplate jdbcTemplate, QueryConfig queryConfig) {
+        Map<String, Map<String, List<String>>> allowlist = queryConfig.getAllowedTables();
+        return new SchemaCatalogLoader(jdbcTemplate).load(allowlist != null ? allowlist : Collections.emptyMap());
+    }
+
+    // The DSL endpoint (JsonToDslTranslator) only sees dsl.allowed.tables; a table allowlisted for
+    // one endpoint must not become readable through the other
+    @Bean
+    public SchemaCatalog dslSchemaCatalog(JdbcTemplate jdbcTemplate) {
+        return new SchemaCatalogLoader(jdbcTemplate).load(toAllowlist(dslAllowedTables));
+    }
+
+    // Converts dsl.allowed.tables to the query.allowed-tables shape: table -> {columns, key, cache-ttl, max-staleness-ms}
+    private Map<String, Map<String, List<String>>> toAllowlist(List<Map<String, Object>> dslTables) {
+        Map<String, Map<String, List<String>>> allowlist = new HashMap<>();
+        if (dslTables == null) {
+            return allowlist;
+        }
+        for (Map<String, Object> dslTable : dslTables) {
+            Map<String, List<String>> config = new HashMap<>();
+            config.put("columns", (List<String>) dslTable.get("columns"));
+            if (dslTable.get("key") != null) {
+                config.put("key", Collections.singletonList((String) dslTable.get("key")));
+            }
+            if (dslTable.get("cache-ttl") != null) {
+                config.put("cache-ttl", Collections.singletonList(String.valueOf(dslTable.get("cache-ttl"))));
+            }
+            if (dslTable.get("max-staleness-ms") != null) {
+                config.put("max-staleness-ms", Collections.singletonList(String.valueOf(dslTable.get("max-staleness-ms"))));
+            }
+            allowlist.put((String) dslTable.get("name"), config);
+        }
+        return allowlist;
+    }
+}
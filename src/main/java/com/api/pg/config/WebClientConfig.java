@@ -0,0 +1,67 @@
+package com.api.pg.config;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking HTTP client for ApiClientService's async calls: a bounded Reactor Netty
+ * connection pool whose idle keep-alive connections are reused across requests, with connect,
+ * response and read timeouts so a stalled instance cannot hold a caller indefinitely.
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Value("${api-client.http.max-connections:100}")
+    private int maxConnections;
+
+    // Requests waiting for a pooled connection before new ones are rejected
+    @Value("${api-client.http.pending-acquire-max-count:500}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${api-client.http.pending-acquire-timeout-ms:2000}")
+    private long pendingAcquireTimeoutMillis;
+
+    // Idle keep-alive connections are closed after this, before servers or proxies drop them
+    @Value("${api-client.http.max-idle-time-ms:30000}")
+    private long maxIdleTimeMillis;
+
+    @Value("${api-client.http.connect-timeout-ms:1000}")
+    private int connectTimeoutMillis;
+
+    @Value("${api-client.http.response-timeout-ms:5000}")
+    private long responseTimeoutMillis;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider apiConnectionProvider() {
+        return ConnectionProvider.builder("api-client")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMillis))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMillis))
+                .evictInBackground(Duration.ofMillis(maxIdleTimeMillis))
+                .build();
+    }
+
+    @Bean
+    public WebClient apiWebClient() {
+        HttpClient httpClient = HttpClient.create(apiConnectionProvider())
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMillis))
+                .doOnConnected(connection -> connection.addHandlerLast(
+                        new ReadTimeoutHandler(responseTimeoutMillis, TimeUnit.MILLISECONDS)));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
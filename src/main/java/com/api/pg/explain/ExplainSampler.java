@@ -0,0 +1,139 @@
+package com.api.pg.explain;
+
+import com.api.pg.ParameterizedQuery;
+import com.api.pg.routing.ReadContext;
+import com.api.pg.routing.ReadRouting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Captures {@code EXPLAIN (FORMAT JSON)} plans of slow queries for the {@link IndexAdvisor}.
+ * Every execution over the threshold is counted against its shape; a sample of them is re-run with
+ * EXPLAIN on a small background pool, at most once per shape per re-explain interval. When the
+ * queue is full the capture is dropped, so a burst of slow requests never waits on the sampler.
+ * Plain EXPLAIN only plans the query; ANALYZE runs it again and is opt-in.
+ */
+@Component
+public class ExplainSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(ExplainSampler.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadRouting readRouting;
+    private final IndexAdvisor indexAdvisor;
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final long reExplainIntervalMillis;
+    private final boolean analyze;
+    private final int timeoutSeconds;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public ExplainSampler(JdbcTemplate jdbcTemplate, ReadRouting readRouting, IndexAdvisor indexAdvisor,
+                          @Value("${query.explain.enabled:true}") boolean enabled,
+                          @Value("${query.explain.threshold-ms:500}") long thresholdMillis,
+                          @Value("${query.explain.sample-rate:0.1}") double sampleRate,
+                          @Value("${query.explain.re-explain-interval-ms:600000}") long reExplainIntervalMillis,
+                          @Value("${query.explain.analyze:false}") boolean analyze,
+                          @Value("${query.explain.timeout-seconds:30}") int timeoutSeconds,
+                          @Value("${query.explain.pool-size:1}") int poolSize,
+                          @Value("${query.explain.queue-capacity:16}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readRouting = readRouting;
+        this.indexAdvisor = indexAdvisor;
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+        this.reExplainIntervalMillis = reExplainIntervalMillis;
+        this.analyze = analyze;
+        this.timeoutSeconds = timeoutSeconds;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "explain-sampler");
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, pool) -> dropped.incrementAndGet());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Called once a request finished successfully, with the time its query spent executing
+    public void offer(ParameterizedQuery query, long executeNanos) {
+        if (!enabled || query == null || query.getCatalog() == null || executeNanos < thresholdNanos) {
+            return;
+        }
+        if (!indexAdvisor.recordSlowExecution(query.getSql(), executeNanos)) {
+            return;
+        }
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate
+                || !indexAdvisor.tryClaimExplain(query.getSql(), reExplainIntervalMillis)) {
+            return;
+        }
+        executor.execute(() -> explain(query));
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void explain(ParameterizedQuery query) {
+        try {
+            // Findings are limited to the columns of the allowlist the query was compiled against
+            List<PlanFinding> findings = new PlanParser(query.getCatalog()).parse(explainJson(query));
+            indexAdvisor.recordPlan(query.getSql(), findings);
+            if (!findings.isEmpty()) {
+                log.info("Plan of shape {} suggests: {}", IndexAdvisor.shapeKey(query.getSql()), findings);
+            }
+        } catch (Exception e) {
+            log.warn("EXPLAIN failed for shape {}: {}", IndexAdvisor.shapeKey(query.getSql()), e.getMessage());
+            indexAdvisor.recordExplainFailure(query.getSql(), e.getMessage());
+        }
+    }
+
+    // Explains on the connection the query itself would use, so the plan reflects the replica it read from.
+    // ANALYZE executes the statement; it runs in a transaction that is always rolled back.
+    String explainJson(ParameterizedQuery query) throws IOException {
+        String sql = (analyze ? "EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " : "EXPLAIN (FORMAT JSON) ") + query.getSql();
+        String plan;
+        try (ReadContext ignored = readRouting.forQuery(query)) {
+            plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    new ArgumentPreparedStatementSetter(query.getParameterArray()).setValues(statement);
+                    statement.setQueryTimeout(timeoutSeconds);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        return resultSet.next() ? resultSet.getString(1) : null;
+                    }
+                } finally {
+                    connection.rollback();
+                    connection.setAutoCommit(autoCommit);
+                }
+            });
+        }
+        if (plan == null) {
+            throw new IOException("EXPLAIN returned no plan");
+        }
+        return plan;
+    }
+}
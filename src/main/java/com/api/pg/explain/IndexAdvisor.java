@@ -0,0 +1,177 @@
+package com.api.pg.explain;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates slow executions and their plan findings per query shape (the SQL template), and
+ * ranks the missing-index candidates by the slow execution time of the shapes they appear in.
+ * Only the first {@code max-shapes} shapes are tracked, so the memory used stays bounded.
+ */
+@Component
+public class IndexAdvisor {
+
+    private final int maxShapes;
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final AtomicLong untrackedSlowExecutions = new AtomicLong();
+
+    public IndexAdvisor(@Value("${query.explain.max-shapes:200}") int maxShapes) {
+        this.maxShapes = maxShapes;
+    }
+
+    public static String shapeKey(String sql) {
+        return Integer.toHexString(sql.hashCode());
+    }
+
+    // Counts one slow execution of the template; returns false once the shape limit is reached
+    public boolean recordSlowExecution(String sql, long executeNanos) {
+        ShapeStats stats = shapes.get(shapeKey(sql));
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                untrackedSlowExecutions.incrementAndGet();
+                return false;
+            }
+            stats = shapes.computeIfAbsent(shapeKey(sql), key -> new ShapeStats(sql));
+        }
+        synchronized (stats) {
+            stats.slowExecutions++;
+            stats.totalNanos += executeNanos;
+            stats.maxNanos = Math.max(stats.maxNanos, executeNanos);
+        }
+        return true;
+    }
+
+    // Claims the shape for an EXPLAIN if it has not been explained within the interval,
+    // so concurrent slow requests of one shape trigger a single capture
+    public boolean tryClaimExplain(String sql, long reExplainIntervalMillis) {
+        ShapeStats stats = shapes.get(shapeKey(sql));
+        if (stats == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (stats) {
+            if (stats.explainedAt != 0 && now - stats.explainedAt < reExplainIntervalMillis) {
+                return false;
+            }
+            stats.explainedAt = now;
+            return true;
+        }
+    }
+
+    // The latest plan replaces earlier findings; data and statistics change, and so do plans
+    public void recordPlan(String sql, List<PlanFinding> findings) {
+        ShapeStats stats = shapes.get(shapeKey(sql));
+        if (stats != null) {
+            synchronized (stats) {
+                stats.findings = findings;
+                stats.explainCount++;
+                stats.explainError = null;
+            }
+        }
+    }
+
+    public void recordExplainFailure(String sql, String error) {
+        ShapeStats stats = shapes.get(shapeKey(sql));
+        if (stats != null) {
+            synchronized (stats) {
+                stats.explainError = error;
+            }
+        }
+    }
+
+    public void clear() {
+        shapes.clear();
+        untrackedSlowExecutions.set(0);
+    }
+
+    // Candidates ranked by the slow execution time of all shapes whose plan shows them,
+    // followed by the per-shape breakdown, slowest first
+    public Map<String, Object> getReport() {
+        Map<PlanFinding, Candidate> candidates = new HashMap<>();
+        List<Map<String, Object>> shapeReports = new ArrayList<>();
+        List<Map.Entry<String, ShapeStats>> entries = new ArrayList<>(shapes.entrySet());
+        for (Map.Entry<String, ShapeStats> entry : entries) {
+            ShapeStats stats = entry.getValue();
+            Map<String, Object> shapeReport = new LinkedHashMap<>();
+            synchronized (stats) {
+                shapeReport.put("shape", entry.getKey());
+                shapeReport.put("sql", stats.sql);
+                shapeReport.put("slowExecutions", stats.slowExecutions);
+                shapeReport.put("totalMillis", stats.totalNanos / 1_000_000);
+                shapeReport.put("maxMillis", stats.maxNanos / 1_000_000);
+                shapeReport.put("explained", stats.explainCount);
+                List<Map<String, Object>> findings = new ArrayList<>();
+                for (PlanFinding finding : stats.findings) {
+                    findings.add(finding.toMap());
+                    Candidate candidate = candidates.computeIfAbsent(finding, Candidate::new);
+                    candidate.totalNanos += stats.totalNanos;
+                    candidate.executions += stats.slowExecutions;
+                    candidate.shapes.add(entry.getKey());
+                }
+                shapeReport.put("findings", findings);
+                if (stats.explainError != null) {
+                    shapeReport.put("explainError", stats.explainError);
+                }
+            }
+            shapeReports.add(shapeReport);
+        }
+        shapeReports.sort(Comparator.comparingLong((Map<String, Object> report) -> (Long) report.get("totalMillis")).reversed());
+
+        List<Candidate> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(Comparator.comparingLong((Candidate candidate) -> candidate.totalNanos).reversed());
+        List<Map<String, Object>> candidateReports = new ArrayList<>();
+        for (Candidate candidate : ranked) {
+            Map<String, Object> candidateReport = candidate.finding.toMap();
+            candidateReport.put("totalMillis", candidate.totalNanos / 1_000_000);
+            candidateReport.put("slowExecutions", candidate.executions);
+            candidateReport.put("shapes", candidate.shapes);
+            candidateReports.add(candidateReport);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("candidates", candidateReports);
+        report.put("shapes", shapeReports);
+        report.put("trackedShapes", shapes.size());
+        report.put("maxShapes", maxShapes);
+        report.put("untrackedSlowExecutions", untrackedSlowExecutions.get());
+        return report;
+    }
+
+    private static final class ShapeStats {
+        final String sql;
+        long slowExecutions;
+        long totalNanos;
+        long maxNanos;
+        long explainedAt;
+        long explainCount;
+        List<PlanFinding> findings = Collections.emptyList();
+        String explainError;
+
+        ShapeStats(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private static final class Candidate {
+        final PlanFinding finding;
+        final Set<String> shapes = new HashSet<>();
+        long totalNanos;
+        long executions;
+
+        Candidate(PlanFinding finding) {
+            this.finding = finding;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.api.pg.explain;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/query/advisor")
+public class IndexAdvisorController {
+
+    @Autowired
+    private IndexAdvisor indexAdvisor;
+
+    @Autowired
+    private ExplainSampler explainSampler;
+
+    // Missing-index candidates ranked by slow execution time, with the per-shape plans behind them
+    @GetMapping("/report")
+    public ResponseEntity<Map<String, Object>> getReport() {
+        Map<String, Object> report = indexAdvisor.getReport();
+        report.put("droppedExplains", explainSampler.getDropped());
+        return ResponseEntity.ok(report);
+    }
+
+    // Start over, e.g. after creating the suggested indexes
+    @PostMapping("/reset")
+    public ResponseEntity<Map<String, Object>> reset() {
+        indexAdvisor.clear();
+        return ResponseEntity.ok(indexAdvisor.getReport());
+    }
+}
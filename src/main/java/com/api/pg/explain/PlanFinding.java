@@ -0,0 +1,86 @@
+package com.api.pg.explain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Something in a query plan an index would likely fix: a sequential scan filtering on
+ * allowlisted columns, or an explicit sort on allowlisted columns.
+ */
+public final class PlanFinding {
+
+    public enum Kind {
+        SEQ_SCAN_FILTER,
+        SORT_WITHOUT_INDEX
+    }
+
+    private final Kind kind;
+    private final String table;
+    private final List<String> columns;
+    private final double estimatedRows;
+
+    public PlanFinding(Kind kind, String table, List<String> columns, double estimatedRows) {
+        this.kind = kind;
+        this.table = table;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.estimatedRows = estimatedRows;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public double getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    // Columns in plan order: filter columns as they appear, sort keys in sort order
+    public String getSuggestion() {
+        return "CREATE INDEX ON " + table + " (" + String.join(", ", columns) + ")";
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("kind", kind.name());
+        map.put("table", table);
+        map.put("columns", columns);
+        map.put("estimatedRows", estimatedRows);
+        map.put("suggestion", getSuggestion());
+        return map;
+    }
+
+    // Findings are the same candidate when kind, table and columns match; row estimates vary per run
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PlanFinding)) {
+            return false;
+        }
+        PlanFinding other = (PlanFinding) o;
+        return kind == other.kind && table.equals(other.table) && columns.equals(other.columns);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, table, columns);
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + table + columns;
+    }
+}
@@ -0,0 +1,149 @@
+package com.api.pg.explain;
+
+import com.api.pg.schema.SchemaCatalog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads {@code EXPLAIN (FORMAT JSON)} output and reports the nodes an index would likely help:
+ * <ul>
+ *   <li>Seq Scan nodes with a Filter on allowlisted columns of the scanned table</li>
+ *   <li>Sort nodes whose keys are allowlisted columns, i.e. no index delivered the order</li>
+ * </ul>
+ * Only allowlisted columns are reported, since those are the ones clients can filter and sort on.
+ * Works on plain and ANALYZE plans; the JSON is the only input, so captured plans can be replayed.
+ */
+public class PlanParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // String literals, then casts such as ::text or ::character varying[], are removed before
+    // looking for column references in a filter expression
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern CAST = Pattern.compile("::\"?[a-zA-Z_][a-zA-Z0-9_ ]*\"?(?:\\[\\])?");
+    private static final Pattern COLUMN_REFERENCE = Pattern.compile("(?:\"?([a-zA-Z_][a-zA-Z0-9_]*)\"?\\.)?\"?([a-zA-Z_][a-zA-Z0-9_]*)\"?");
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "and", "or", "not", "is", "null", "true", "false", "any", "all", "like", "ilike", "in", "between", "distinct", "from"));
+    private static final Pattern SORT_DIRECTION = Pattern.compile("(?i)\\s+(ASC|DESC|NULLS FIRST|NULLS LAST|USING\\s+\\S+)\\b.*$");
+
+    private final SchemaCatalog schemaCatalog;
+
+    public PlanParser(SchemaCatalog schemaCatalog) {
+        this.schemaCatalog = schemaCatalog;
+    }
+
+    public List<PlanFinding> parse(String explainJson) throws IOException {
+        JsonNode root = MAPPER.readTree(explainJson);
+        JsonNode plan = root.isArray() && root.size() > 0 ? root.get(0).get("Plan") : root.get("Plan");
+        if (plan == null) {
+            throw new IOException("Not an EXPLAIN (FORMAT JSON) document");
+        }
+        Map<String, String> aliasToTable = new HashMap<>();
+        collectRelations(plan, aliasToTable);
+
+        Set<PlanFinding> findings = new LinkedHashSet<>();
+        walk(plan, aliasToTable, findings);
+        return new ArrayList<>(findings);
+    }
+
+    private void collectRelations(JsonNode node, Map<String, String> aliasToTable) {
+        String table = allowedTable(node);
+        if (table != null) {
+            aliasToTable.put(node.path("Alias").asText(node.path("Relation Name").asText()), table);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectRelations(child, aliasToTable);
+        }
+    }
+
+    private void walk(JsonNode node, Map<String, String> aliasToTable, Set<PlanFinding> findings) {
+        String nodeType = node.path("Node Type").asText();
+        double rows = node.path("Plan Rows").asDouble();
+
+        if (nodeType.equals("Seq Scan") && node.has("Filter")) {
+            String table = allowedTable(node);
+            String alias = node.path("Alias").asText(null);
+            if (table != null) {
+                List<String> columns = filterColumns(node.get("Filter").asText(), table, alias);
+                if (!columns.isEmpty()) {
+                    findings.add(new PlanFinding(PlanFinding.Kind.SEQ_SCAN_FILTER, table, columns, rows));
+                }
+            }
+        } else if (nodeType.equals("Sort") && node.has("Sort Key")) {
+            addSortFinding(node.get("Sort Key"), aliasToTable, rows, findings);
+        }
+
+        for (JsonNode child : node.path("Plans")) {
+            walk(child, aliasToTable, findings);
+        }
+    }
+
+    // Allowlisted columns of the scanned table referenced by the filter, in order of appearance
+    List<String> filterColumns(String filter, String table, String alias) {
+        String expression = CAST.matcher(STRING_LITERAL.matcher(filter).replaceAll(" ")).replaceAll(" ");
+        Set<String> columns = new LinkedHashSet<>();
+        Matcher matcher = COLUMN_REFERENCE.matcher(expression);
+        while (matcher.find()) {
+            String qualifier = matcher.group(1);
+            String column = matcher.group(2);
+            if (qualifier != null && alias != null && !qualifier.equals(alias)) {
+                continue;
+            }
+            if (!KEYWORDS.contains(column.toLowerCase()) && schemaCatalog.isColumnAllowed(table, column)) {
+                columns.add(column);
+            }
+        }
+        return new ArrayList<>(columns);
+    }
+
+    // Sort keys look like "u.created_at DESC" or "amount"; all keys must be plain allowlisted
+    // columns of one table for a single index to provide the order
+    private void addSortFinding(JsonNode sortKeys, Map<String, String> aliasToTable, double rows, Set<PlanFinding> findings) {
+        String table = null;
+        List<String> columns = new ArrayList<>();
+        for (JsonNode sortKey : sortKeys) {
+            String key = SORT_DIRECTION.matcher(sortKey.asText().trim()).replaceAll("");
+            Matcher matcher = COLUMN_REFERENCE.matcher(key);
+            if (!matcher.matches()) {
+                return;
+            }
+            String keyTable = matcher.group(1) != null
+                    ? aliasToTable.get(matcher.group(1))
+                    : (aliasToTable.size() == 1 ? aliasToTable.values().iterator().next() : null);
+            if (keyTable == null || (table != null && !table.equals(keyTable))
+                    || !schemaCatalog.isColumnAllowed(keyTable, matcher.group(2))) {
+                return;
+            }
+            table = keyTable;
+            columns.add(matcher.group(2));
+        }
+        if (table != null) {
+            findings.add(new PlanFinding(PlanFinding.Kind.SORT_WITHOUT_INDEX, table, columns, rows));
+        }
+    }
+
+    // The allowlisted name of the node's relation; plans name tables without their schema
+    private String allowedTable(JsonNode node) {
+        if (!node.has("Relation Name")) {
+            return null;
+        }
+        String relation = node.get("Relation Name").asText();
+        if (schemaCatalog.isTableAllowed(relation)) {
+            return relation;
+        }
+        String qualified = node.path("Schema").asText("public") + "." + relation;
+        return schemaCatalog.isTableAllowed(qualified) ? qualified : null;
+    }
+}
@@ -0,0 +1,146 @@
+package com.api.pg.metrics;
+
+import com.api.pg.ParameterizedQuery;
+import com.api.pg.explain.ExplainSampler;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes per-request phase timings to Micrometer and logs slow requests with their breakdown.
+ * <ul>
+ *   <li>{@code query.request}: total time, tagged endpoint, table, shape and outcome</li>
+ *   <li>{@code query.phase}: time per phase, additionally tagged phase</li>
+ *   <li>{@code query.rows} and {@code query.response.bytes}: result size distributions</li>
+ * </ul>
+ * The shape tag is a fingerprint of the SQL template. Only the first {@code max-shapes} distinct
+ * templates get their own value and the rest are tagged "other", to keep the tag cardinality bounded.
+ * Successful requests are also handed to the {@link ExplainSampler}, which captures plans of slow queries.
+ */
+@Component
+public class QueryMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryMetrics.class);
+
+    private final MeterRegistry registry;
+    private final ExplainSampler explainSampler;
+    private final long slowRequestNanos;
+    private final int maxShapes;
+    private final Set<String> shapes = ConcurrentHashMap.newKeySet();
+
+    public QueryMetrics(MeterRegistry registry, ExplainSampler explainSampler,
+                        @Value("${query.metrics.slow-request-ms:1000}") long slowRequestMillis,
+                        @Value("${query.metrics.max-shapes:500}") int maxShapes) {
+        this.registry = registry;
+        this.explainSampler = explainSampler;
+        this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMillis);
+        this.maxShapes = maxShapes;
+    }
+
+    // Starts timing a request on the calling thread
+    public QueryTimings start(String endpoint) {
+        QueryTimings timings = new QueryTimings(endpoint);
+        timings.attach();
+        return timings;
+    }
+
+    // Tags the request with what it queries, once translation produced the query
+    public void describe(QueryTimings timings, ParameterizedQuery query) {
+        timings.table = String.join(",", new TreeSet<>(query.getTables()));
+        timings.shape = shapeTag(query.getSql());
+        timings.sql = query.getSql();
+        timings.query = query;
+    }
+
+    // outcome: success, client_error (rejected request) or error
+    public void finish(QueryTimings timings, String outcome) {
+        timings.detach();
+        long totalNanos = System.nanoTime() - timings.startNanos;
+        // Checkout happens inside execution; report them separately
+        timings.phaseNanos[QueryPhase.EXECUTE.ordinal()] =
+                Math.max(0, timings.phase(QueryPhase.EXECUTE) - timings.phase(QueryPhase.CHECKOUT));
+
+        Tags tags = Tags.of("endpoint", timings.endpoint, "table", timings.table, "shape", timings.shape);
+        Timer.builder("query.request")
+                .description("Query request latency")
+                .tags(tags.and("outcome", outcome))
+                .register(registry)
+                .record(totalNanos, TimeUnit.NANOSECONDS);
+        for (QueryPhase phase : QueryPhase.values()) {
+            if (timings.phase(phase) > 0) {
+                Timer.builder("query.phase")
+                        .description("Time spent in one phase of a query request")
+                        .tags(tags.and("phase", phase.tag()))
+                        .register(registry)
+                        .record(timings.phase(phase), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (timings.rows >= 0) {
+            DistributionSummary.builder("query.rows")
+                    .description("Rows returned per request")
+                    .tags(tags)
+                    .register(registry)
+                    .record(timings.rows);
+        }
+        if (timings.bytes >= 0) {
+            DistributionSummary.builder("query.response.bytes")
+                    .description("Response body size per request")
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .register(registry)
+                    .record(timings.bytes);
+        }
+
+        if (totalNanos >= slowRequestNanos) {
+            logSlowRequest(timings, totalNanos, outcome);
+        }
+        if (outcome.equals("success")) {
+            explainSampler.offer(timings.query, timings.phase(QueryPhase.EXECUTE));
+        }
+    }
+
+    // key=value pairs so log tooling can index the breakdown
+    private void logSlowRequest(QueryTimings timings, long totalNanos, String outcome) {
+        StringBuilder message = new StringBuilder("slow_request");
+        message.append(" endpoint=").append(timings.endpoint)
+                .append(" table=").append(timings.table)
+                .append(" shape=").append(timings.shape)
+                .append(" outcome=").append(outcome)
+                .append(" total_ms=").append(millis(totalNanos));
+        for (QueryPhase phase : QueryPhase.values()) {
+            message.append(' ').append(phase.tag()).append("_ms=").append(millis(timings.phase(phase)));
+        }
+        message.append(" rows=").append(timings.rows)
+                .append(" bytes=").append(timings.bytes);
+        if (timings.sql != null) {
+            message.append(" sql=\"").append(timings.sql.replace("\"", "\\\"")).append('"');
+        }
+        log.warn(message.toString());
+    }
+
+    private String shapeTag(String sql) {
+        String shape = Integer.toHexString(sql.hashCode());
+        if (shapes.contains(shape)) {
+            return shape;
+        }
+        if (shapes.size() < maxShapes) {
+            shapes.add(shape);
+            return shape;
+        }
+        return "other";
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+}
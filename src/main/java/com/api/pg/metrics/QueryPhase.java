@@ -0,0 +1,16 @@
+package com.api.pg.metrics;
+
+import java.util.Locale;
+
+// Stages of a query request, in the order they run
+public enum QueryPhase {
+    TRANSLATE,  // request JSON to query AST
+    VALIDATE,   // allowlist checks and SQL rendering
+    CHECKOUT,   // waiting for a pooled connection
+    EXECUTE,    // statement execution and fetching rows, without checkout
+    SERIALIZE;  // encoding the response body
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
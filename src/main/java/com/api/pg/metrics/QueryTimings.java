@@ -0,0 +1,58 @@
+package com.api.pg.metrics;
+
+import com.api.pg.ParameterizedQuery;
+
+/**
+ * Phase durations of one request. The request's timings are bound to the thread doing the work,
+ * so code deep in the pipeline (translator, execution service, connection pool) can add to them
+ * through the static {@link #record} without passing them around; outside a request it is a no-op.
+ * Not thread-safe: a request's work runs on one thread at a time.
+ */
+public final class QueryTimings {
+
+    private static final ThreadLocal<QueryTimings> CURRENT = new ThreadLocal<>();
+
+    final String endpoint;
+    final long startNanos = System.nanoTime();
+    final long[] phaseNanos = new long[QueryPhase.values().length];
+    String table = "unknown";
+    String shape = "unknown";
+    String sql;
+    ParameterizedQuery query;
+    long rows = -1;
+    long bytes = -1;
+
+    QueryTimings(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public static void record(QueryPhase phase, long nanos) {
+        QueryTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.phaseNanos[phase.ordinal()] += nanos;
+        }
+    }
+
+    // Binds the timings to the calling thread, e.g. the thread writing a streamed response
+    public void attach() {
+        CURRENT.set(this);
+    }
+
+    public void detach() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    long phase(QueryPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+}
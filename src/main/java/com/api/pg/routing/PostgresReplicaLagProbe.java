@@ -0,0 +1,43 @@
+package com.api.pg.routing;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Replay lag as seen by a PostgreSQL standby: time since the last replayed transaction.
+ * A standby whose WAL receiver is streaming and has replayed everything it received counts as
+ * caught up, otherwise an idle primary would make every replica look increasingly stale. Without a
+ * streaming receiver nothing new arrives, so "replayed everything received" says nothing and the lag
+ * is the time since the last replay; if nothing was replayed either the lag is unknown and the probe
+ * fails. A server that is not in recovery has no lag.
+ * Reading the receiver status needs pg_read_all_stats (e.g. through pg_monitor); without it the
+ * receiver never looks streaming and the lag is simply measured the conservative way.
+ */
+public class PostgresReplicaLagProbe implements ReplicaLagProbe {
+
+    private static final String LAG_QUERY =
+            "SELECT CASE" +
+            " WHEN NOT pg_is_in_recovery() THEN 0" +
+            " WHEN streaming AND pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0" +
+            " WHEN streaming THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)" +
+            " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000" +
+            " END::bigint" +
+            " FROM (SELECT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') AS streaming) receiver";
+
+    @Override
+    public long lagMillis(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            long lag = resultSet.getLong(1);
+            if (resultSet.wasNull()) {
+                throw new SQLException("Replica lag unknown: WAL receiver is not streaming and nothing has been replayed");
+            }
+            return Math.max(0, lag);
+        }
+    }
+}
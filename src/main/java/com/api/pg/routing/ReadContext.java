@@ -0,0 +1,44 @@
+package com.api.pg.routing;
+
+/**
+ * Marks the current thread's work as a read that may run on a replica lagging at most
+ * {@code maxStalenessMillis} behind the primary. {@link ReplicaRoutingDataSource} consults it
+ * when a connection is requested; without an open context, connections come from the primary.
+ * Contexts nest and restore the enclosing one on close.
+ */
+public final class ReadContext implements AutoCloseable {
+
+    private static final ThreadLocal<ReadContext> CURRENT = new ThreadLocal<>();
+
+    private final long maxStalenessMillis;
+    private final ReadContext previous;
+
+    private ReadContext(long maxStalenessMillis, ReadContext previous) {
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.previous = previous;
+    }
+
+    public static ReadContext open(long maxStalenessMillis) {
+        ReadContext context = new ReadContext(maxStalenessMillis, CURRENT.get());
+        CURRENT.set(context);
+        return context;
+    }
+
+    // The innermost open context of this thread, or null
+    public static ReadContext current() {
+        return CURRENT.get();
+    }
+
+    public long getMaxStalenessMillis() {
+        return maxStalenessMillis;
+    }
+
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
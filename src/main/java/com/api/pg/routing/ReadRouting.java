@@ -0,0 +1,29 @@
+package com.api.pg.routing;
+
+import com.api.pg.ParameterizedQuery;
+import com.api.pg.schema.SchemaCatalog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens a {@link ReadContext} for a query, with the staleness budget of the tables it reads
+ * (max-staleness-ms in the allowlist the query was compiled against, else
+ * query.replicas.default-max-staleness-ms).
+ * Without replica routing configured the context is simply ignored.
+ */
+@Component
+public class ReadRouting {
+
+    private final long defaultMaxStalenessMillis;
+
+    public ReadRouting(@Value("${query.replicas.default-max-staleness-ms:1000}") long defaultMaxStalenessMillis) {
+        this.defaultMaxStalenessMillis = defaultMaxStalenessMillis;
+    }
+
+    public ReadContext forQuery(ParameterizedQuery query) {
+        SchemaCatalog catalog = query.getCatalog();
+        return ReadContext.open(catalog != null
+                ? catalog.getMaxStalenessMillis(query.getTables(), defaultMaxStalenessMillis)
+                : defaultMaxStalenessMillis);
+    }
+}
@@ -0,0 +1,15 @@
+package com.api.pg.routing;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Measures how far a replica's replay is behind the primary.
+ * The PostgreSQL implementation asks the replica itself; tests running against embedded
+ * databases without streaming replication can plug in their own probe.
+ */
+public interface ReplicaLagProbe {
+
+    // Current replay lag in milliseconds; throwing marks the replica unhealthy
+    long lagMillis(DataSource replica) throws SQLException;
+}
@@ -0,0 +1,197 @@
+package com.api.pg.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource with one primary and any number of read replicas.
+ * Connections requested inside a {@link ReadContext} go to the healthy replica with the fewest
+ * outstanding connections whose replay lag is within the context's staleness budget; everything
+ * else, and reads no replica can serve, goes to the primary. Health and lag are refreshed on a
+ * fixed schedule through a {@link ReplicaLagProbe}. Once a check is overdue, the lag used for routing
+ * grows with the time since the last successful one, so a replica whose checks stall ages out on its own.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaLagProbe lagProbe;
+    private final AtomicInteger tieBreaker = new AtomicInteger();
+    private ScheduledExecutorService healthChecker;
+    private volatile long checkIntervalMillis;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaLagProbe lagProbe) {
+        this.primary = primary;
+        this.lagProbe = lagProbe;
+        List<Replica> nodes = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> nodes.add(new Replica(name, dataSource)));
+        this.replicas = Collections.unmodifiableList(nodes);
+    }
+
+    // Runs a first check synchronously so replicas can serve reads right away, then every interval
+    public void start(long checkIntervalMillis) {
+        this.checkIntervalMillis = checkIntervalMillis;
+        checkReplicas();
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        closeQuietly(primary);
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(username, password);
+    }
+
+    private Connection route(String username, String password) throws SQLException {
+        ReadContext context = ReadContext.current();
+        if (context != null) {
+            // A replica that fails to hand out a connection is marked down and the next one is tried
+            Replica replica;
+            while ((replica = selectReplica(context.getMaxStalenessMillis())) != null) {
+                try {
+                    return replica.connect(username, password);
+                } catch (SQLException e) {
+                    log.warn("Replica {} unavailable, marking unhealthy: {}", replica.name, e.getMessage());
+                    replica.healthy = false;
+                }
+            }
+        }
+        return username != null ? primary.getConnection(username, password) : primary.getConnection();
+    }
+
+    // Least outstanding connections among healthy replicas within the staleness budget;
+    // ties rotate so equally loaded replicas share the traffic
+    private Replica selectReplica(long maxStalenessMillis) {
+        long now = System.currentTimeMillis();
+        int offset = tieBreaker.getAndIncrement() & Integer.MAX_VALUE;
+        Replica best = null;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((offset + i) % replicas.size());
+            if (!replica.healthy || replica.effectiveLagMillis(now, checkIntervalMillis) > maxStalenessMillis) {
+                continue;
+            }
+            if (best == null || replica.outstanding.get() < best.outstanding.get()) {
+                best = replica;
+            }
+        }
+        return best;
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            try {
+                long lag = lagProbe.lagMillis(replica.dataSource);
+                replica.lagMillis = lag;
+                replica.checkedAt = System.currentTimeMillis();
+                if (!replica.healthy) {
+                    log.info("Replica {} is healthy again (lag {} ms)", replica.name, lag);
+                }
+                replica.healthy = true;
+            } catch (Exception e) {
+                if (replica.healthy) {
+                    log.warn("Replica {} failed its health check: {}", replica.name, e.getMessage());
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            Map<String, Object> replicaStats = new HashMap<>();
+            replicaStats.put("healthy", replica.healthy);
+            replicaStats.put("lagMillis", replica.effectiveLagMillis(now, checkIntervalMillis));
+            replicaStats.put("outstanding", replica.outstanding.get());
+            stats.put(replica.name, replicaStats);
+        }
+        return stats;
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("Failed to close data source", e);
+            }
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        final AtomicInteger outstanding = new AtomicInteger();
+        volatile boolean healthy;
+        volatile long lagMillis;
+        volatile long checkedAt;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        long effectiveLagMillis(long now, long checkIntervalMillis) {
+            return lagMillis + Math.max(0, now - checkedAt - checkIntervalMillis);
+        }
+
+        // Counts the connection as outstanding until it is closed (returned to the replica's pool)
+        Connection connect(String username, String password) throws SQLException {
+            Connection connection = username != null ? dataSource.getConnection(username, password) : dataSource.getConnection();
+            outstanding.incrementAndGet();
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                            outstanding.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.api.pg.schema;
+
+import org.springframework.jdbc.core.SqlParameterValue;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * An allowlisted column as it exists in PostgreSQL: its JDBC type, nullability and whether
+ * it leads an index. Used to bind request values with the column's own type, so the server
+ * compares like with like instead of casting the column and losing the index.
+ */
+public final class ColumnSchema {
+
+    // Type could not be introspected; strings are bound untyped (see bindUntyped)
+    public static final int UNKNOWN_TYPE = Integer.MIN_VALUE;
+
+    private final String name;
+    private final int jdbcType;
+    private final String pgType;
+    private final boolean nullable;
+    private final boolean indexed;
+    private final boolean primaryKey;
+
+    public ColumnSchema(String name, int jdbcType, String pgType, boolean nullable, boolean indexed, boolean primaryKey) {
+        this.name = name;
+        this.jdbcType = jdbcType;
+        this.pgType = pgType;
+        this.nullable = nullable;
+        this.indexed = indexed;
+        this.primaryKey = primaryKey;
+    }
+
+    public static ColumnSchema untyped(String name) {
+        return new ColumnSchema(name, UNKNOWN_TYPE, null, true, false, false);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getJdbcType() {
+        return jdbcType;
+    }
+
+    public String getPgType() {
+        return pgType;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    // True if the column is the leading column of at least one index
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public boolean isPrimaryKey() {
+        return primaryKey;
+    }
+
+    // Converts a JSON request value to the column's Java type and tags it with the JDBC type
+    public Object bind(Object value) {
+        if (jdbcType == UNKNOWN_TYPE) {
+            return bindUntyped(value);
+        }
+        if (value == null) {
+            return new SqlParameterValue(jdbcType, null);
+        }
+        try {
+            return new SqlParameterValue(jdbcType, coerce(value));
+        } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid value for column " + name + ": " + value);
+        }
+    }
+
+    // Without a column type a string must not go out as varchar: "int_col = ?" would fail with
+    // "operator does not exist". Types.OTHER sends it as unspecified and the server infers the type,
+    // as it did for inlined literals. Numbers and booleans already carry a type that compares fine.
+    public static Object bindUntyped(Object value) {
+        return value instanceof String ? new SqlParameterValue(Types.OTHER, value) : value;
+    }
+
+    private Object coerce(Object value) {
+        String text = value.toString();
+        switch (jdbcType) {
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return value instanceof Number ? ((Number) value).intValue() : Integer.valueOf(text);
+            case Types.BIGINT:
+                return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(text);
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return new BigDecimal(text);
+            case Types.REAL:
+            case Types.DOUBLE:
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.valueOf(text);
+            case Types.BOOLEAN:
+            case Types.BIT:
+                return value instanceof Boolean ? value : Boolean.valueOf(text);
+            case Types.DATE:
+                return Date.valueOf(LocalDate.parse(text));
+            case Types.TIMESTAMP:
+                return Timestamp.valueOf(text.replace('T', ' '));
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                try {
+                    return OffsetDateTime.parse(text);
+                } catch (DateTimeParseException e) {
+                    // Continuation tokens carry timestamps in java.sql.Timestamp text form
+                    return Timestamp.valueOf(text.replace('T', ' '));
+                }
+            case Types.VARCHAR:
+            case Types.CHAR:
+                return text;
+            default:
+                // uuid, json, jsonb, enums: sent untyped and resolved by the server
+                return value;
+        }
+    }
+
+    // Maps information_schema.columns.data_type to a JDBC type
+    public static int jdbcTypeOf(String dataType) {
+        switch (dataType) {
+            case "smallint": return Types.SMALLINT;
+            case "integer": return Types.INTEGER;
+            case "bigint": return Types.BIGINT;
+            case "numeric": return Types.NUMERIC;
+            case "real": return Types.REAL;
+            case "double precision": return Types.DOUBLE;
+            case "boolean": return Types.BOOLEAN;
+            case "text":
+            case "character varying": return Types.VARCHAR;
+            case "character": return Types.CHAR;
+            case "date": return Types.DATE;
+            case "timestamp without time zone": return Types.TIMESTAMP;
+            case "timestamp with time zone": return Types.TIMESTAMP_WITH_TIMEZONE;
+            default: return Types.OTHER;
+        }
+    }
+}
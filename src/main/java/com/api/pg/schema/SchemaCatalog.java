@@ -0,0 +1,135 @@
+package com.api.pg.schema;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable catalog of the tables and columns an endpoint may query: that endpoint's YAML
+ * allowlist intersected with what actually exists in PostgreSQL, with O(1) hashed lookups.
+ * Each endpoint has its own catalog (see SchemaCatalogConfig), and compiled queries carry theirs.
+ * Each instance gets a new version so caches keyed on the allowlist can tell catalogs apart.
+ */
+public final class SchemaCatalog {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final Map<String, TableSchema> tables;
+    private final long version;
+
+    public SchemaCatalog(Map<String, TableSchema> tables) {
+        this.tables = Collections.unmodifiableMap(new HashMap<>(tables));
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Builds a catalog from the allowlist alone, without column types.
+     * Used when the database cannot be introspected, and by tools that run without a database.
+     * @param allowlist table -> {"columns": [...], "jsonb": [...], "key": [...], "cache-ttl": [...], "max-staleness-ms": [...]},
+     *                  as in query.allowed-tables.
+     */
+    public static SchemaCatalog fromAllowlist(Map<String, Map<String, List<String>>> allowlist) {
+        Map<String, TableSchema> tables = new HashMap<>();
+        for (Map.Entry<String, Map<String, List<String>>> entry : allowlist.entrySet()) {
+            Map<String, ColumnSchema> columns = new HashMap<>();
+            for (String column : listOf(entry.getValue(), "columns")) {
+                columns.put(column, ColumnSchema.untyped(column));
+            }
+            tables.put(entry.getKey(), new TableSchema(entry.getKey(), columns,
+                    new HashSet<>(listOf(entry.getValue(), "jsonb")), firstOf(entry.getValue(), "key"),
+                    cacheTtlSeconds(entry.getValue()), maxStalenessMillis(entry.getValue())));
+        }
+        return new SchemaCatalog(tables);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Set<String> getTableNames() {
+        return tables.keySet();
+    }
+
+    public TableSchema getTable(String tableName) {
+        return tables.get(tableName);
+    }
+
+    public boolean isTableAllowed(String tableName) {
+        return tables.containsKey(tableName);
+    }
+
+    public boolean isColumnAllowed(String tableName, String columnName) {
+        TableSchema table = tables.get(tableName);
+        return table != null && table.hasColumn(columnName);
+    }
+
+    public boolean isJsonbFieldAllowed(String tableName, String jsonbField) {
+        TableSchema table = tables.get(tableName);
+        return table != null && table.isJsonbFieldAllowed(jsonbField);
+    }
+
+    public ColumnSchema getColumn(String tableName, String columnName) {
+        TableSchema table = tables.get(tableName);
+        return table != null ? table.getColumn(columnName) : null;
+    }
+
+    public String getKeyColumn(String tableName) {
+        TableSchema table = tables.get(tableName);
+        return table != null ? table.getKeyColumn() : null;
+    }
+
+    // Results may be cached for the shortest TTL of all tables read; 0 if any table is not cacheable
+    public long getCacheTtlSeconds(Set<String> tableNames) {
+        if (tableNames.isEmpty()) {
+            return 0;
+        }
+        long ttl = Long.MAX_VALUE;
+        for (String tableName : tableNames) {
+            TableSchema table = tables.get(tableName);
+            ttl = Math.min(ttl, table != null ? table.getCacheTtlSeconds() : 0);
+        }
+        return ttl;
+    }
+
+    // Replica lag a read of these tables tolerates: the smallest configured budget, or the default
+    // for tables without one
+    public long getMaxStalenessMillis(Set<String> tableNames, long defaultMillis) {
+        long staleness = Long.MAX_VALUE;
+        for (String tableName : tableNames) {
+            TableSchema table = tables.get(tableName);
+            long tableStaleness = table != null ? table.getMaxStalenessMillis() : -1;
+            staleness = Math.min(staleness, tableStaleness >= 0 ? tableStaleness : defaultMillis);
+        }
+        return tableNames.isEmpty() ? defaultMillis : staleness;
+    }
+
+    // Binds a request value with the column's JDBC type; unknown columns bind it untyped
+    public Object bind(String tableName, String columnName, Object value) {
+        ColumnSchema column = getColumn(tableName, columnName);
+        return column != null ? column.bind(value) : ColumnSchema.bindUntyped(value);
+    }
+
+    static List<String> listOf(Map<String, List<String>> tableConfig, String key) {
+        List<String> values = tableConfig.get(key);
+        return values != null ? values : Collections.emptyList();
+    }
+
+    static long cacheTtlSeconds(Map<String, List<String>> tableConfig) {
+        String ttl = firstOf(tableConfig, "cache-ttl");
+        return ttl != null ? Long.parseLong(ttl.trim()) : 0;
+    }
+
+    static long maxStalenessMillis(Map<String, List<String>> tableConfig) {
+        String staleness = firstOf(tableConfig, "max-staleness-ms");
+        return staleness != null ? Long.parseLong(staleness.trim()) : -1;
+    }
+
+    static String firstOf(Map<String, List<String>> tableConfig, String key) {
+        List<String> values = listOf(tableConfig, key);
+        return values.isEmpty() ? null : values.get(0);
+    }
+}
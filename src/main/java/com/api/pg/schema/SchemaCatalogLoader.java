@@ -0,0 +1,142 @@
+package com.api.pg.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the {@link SchemaCatalog} by introspecting information_schema and pg_catalog and
+ * intersecting the result with the YAML allowlist. Allowlisted columns that do not exist
+ * in the database are dropped with a warning. Unqualified table names resolve in current_schema();
+ * schema-qualified ones ("audit.events") are introspected in their own schema.
+ */
+public class SchemaCatalogLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaCatalogLoader.class);
+
+    private static final String COLUMNS_SQL =
+            "SELECT table_schema, table_name, column_name, data_type, is_nullable, " +
+            "table_schema = current_schema() AS in_current_schema FROM information_schema.columns " +
+            "WHERE table_schema = current_schema()";
+
+    // Every indexed column, flagged when it leads the index (only then can it drive an index scan on its own)
+    private static final String INDEXES_SQL =
+            "SELECT n.nspname AS table_schema, t.relname AS table_name, a.attname AS column_name, " +
+            "n.nspname = current_schema() AS in_current_schema, " +
+            "a.attnum = ix.indkey[0] AS leading, ix.indisprimary AND array_length(ix.indkey::int2[], 1) = 1 AS single_pk " +
+            "FROM pg_index ix " +
+            "JOIN pg_class t ON t.oid = ix.indrelid " +
+            "JOIN pg_namespace n ON n.oid = t.relnamespace " +
+            "JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = ANY(ix.indkey) " +
+            "WHERE n.nspname = current_schema()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaCatalogLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public SchemaCatalog load(Map<String, Map<String, List<String>>> allowlist) {
+        Map<String, Map<String, Map<String, Object>>> dbColumns = new HashMap<>();
+        Set<String> leadingIndexColumns = new HashSet<>();
+        Set<String> primaryKeyColumns = new HashSet<>();
+        Object[] schemas = qualifyingSchemas(allowlist.keySet());
+        String schemaFilter = schemaFilter(schemas.length);
+        try {
+            for (Map<String, Object> row : jdbcTemplate.queryForList(COLUMNS_SQL + schemaFilter.replace("{schema}", "table_schema"), schemas)) {
+                for (String tableName : tableNames(row)) {
+                    dbColumns.computeIfAbsent(tableName, t -> new HashMap<>()).put((String) row.get("column_name"), row);
+                }
+            }
+            for (Map<String, Object> row : jdbcTemplate.queryForList(INDEXES_SQL + schemaFilter.replace("{schema}", "n.nspname"), schemas)) {
+                for (String tableName : tableNames(row)) {
+                    String qualified = tableName + "." + row.get("column_name");
+                    if (Boolean.TRUE.equals(row.get("leading"))) {
+                        leadingIndexColumns.add(qualified);
+                    }
+                    if (Boolean.TRUE.equals(row.get("single_pk"))) {
+                        primaryKeyColumns.add(qualified);
+                    }
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Schema introspection failed, using the allowlist without column types: {}", e.getMessage());
+            return SchemaCatalog.fromAllowlist(allowlist);
+        }
+
+        Map<String, TableSchema> tables = new HashMap<>();
+        for (Map.Entry<String, Map<String, List<String>>> entry : allowlist.entrySet()) {
+            String tableName = entry.getKey();
+            Map<String, Map<String, Object>> existing = dbColumns.get(tableName);
+            if (existing == null) {
+                log.warn("Allowlisted table {} does not exist in schema, skipping", tableName);
+                continue;
+            }
+
+            Map<String, ColumnSchema> columns = new HashMap<>();
+            String primaryKey = null;
+            for (String columnName : SchemaCatalog.listOf(entry.getValue(), "columns")) {
+                Map<String, Object> dbColumn = existing.get(columnName);
+                if (dbColumn == null) {
+                    log.warn("Allowlisted column {}.{} does not exist in schema, skipping", tableName, columnName);
+                    continue;
+                }
+                String qualified = tableName + "." + columnName;
+                String dataType = (String) dbColumn.get("data_type");
+                boolean isPrimaryKey = primaryKeyColumns.contains(qualified);
+                columns.put(columnName, new ColumnSchema(columnName, ColumnSchema.jdbcTypeOf(dataType), dataType,
+                        "YES".equals(dbColumn.get("is_nullable")), leadingIndexColumns.contains(qualified), isPrimaryKey));
+                if (isPrimaryKey) {
+                    primaryKey = columnName;
+                }
+            }
+
+            // An explicit key in the allowlist wins; otherwise a single-column primary key is a safe tiebreaker
+            String keyColumn = SchemaCatalog.firstOf(entry.getValue(), "key");
+            tables.put(tableName, new TableSchema(tableName, columns,
+                    new HashSet<>(SchemaCatalog.listOf(entry.getValue(), "jsonb")),
+                    keyColumn != null ? keyColumn : primaryKey,
+                    SchemaCatalog.cacheTtlSeconds(entry.getValue()), SchemaCatalog.maxStalenessMillis(entry.getValue())));
+        }
+        return new SchemaCatalog(tables);
+    }
+
+    // Schemas named by schema-qualified allowlist entries
+    private static Object[] qualifyingSchemas(Set<String> tableNames) {
+        Set<String> schemas = new HashSet<>();
+        for (String tableName : tableNames) {
+            int dot = tableName.indexOf('.');
+            if (dot > 0) {
+                schemas.add(tableName.substring(0, dot));
+            }
+        }
+        return schemas.toArray();
+    }
+
+    private static String schemaFilter(int schemaCount) {
+        if (schemaCount == 0) {
+            return "";
+        }
+        StringBuilder filter = new StringBuilder(" OR {schema} IN (");
+        for (int i = 0; i < schemaCount; i++) {
+            filter.append(i > 0 ? ", ?" : "?");
+        }
+        return filter.append(")").toString();
+    }
+
+    // A table is known by its qualified name, and by its bare name when it lives in current_schema()
+    private static List<String> tableNames(Map<String, Object> row) {
+        String tableName = (String) row.get("table_name");
+        String qualified = row.get("table_schema") + "." + tableName;
+        return Boolean.TRUE.equals(row.get("in_current_schema")) ? Arrays.asList(tableName, qualified) : Collections.singletonList(qualified);
+    }
+}
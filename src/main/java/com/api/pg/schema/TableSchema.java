@@ -0,0 +1,68 @@
+package com.api.pg.schema;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An allowlisted table: its columns keyed by name, the JSONB expressions clients may select,
+ * the key column used as the keyset pagination tiebreaker, how long results may be cached, and
+ * how stale a read replica may be to serve it.
+ */
+public final class TableSchema {
+
+    private final String name;
+    private final Map<String, ColumnSchema> columns;
+    private final Set<String> jsonbFields;
+    private final String keyColumn;
+    private final long cacheTtlSeconds;
+    private final long maxStalenessMillis;
+
+    public TableSchema(String name, Map<String, ColumnSchema> columns, Set<String> jsonbFields,
+                       String keyColumn, long cacheTtlSeconds, long maxStalenessMillis) {
+        this.name = name;
+        this.columns = Collections.unmodifiableMap(columns);
+        this.jsonbFields = Collections.unmodifiableSet(jsonbFields);
+        this.keyColumn = keyColumn;
+        this.cacheTtlSeconds = cacheTtlSeconds;
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, ColumnSchema> getColumns() {
+        return columns;
+    }
+
+    public ColumnSchema getColumn(String columnName) {
+        return columns.get(columnName);
+    }
+
+    public boolean hasColumn(String columnName) {
+        return columns.containsKey(columnName);
+    }
+
+    public boolean isJsonbFieldAllowed(String jsonbField) {
+        return jsonbFields.contains(jsonbField);
+    }
+
+    public Set<String> getJsonbFields() {
+        return jsonbFields;
+    }
+
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+
+    // 0 means results from this table are never cached
+    public long getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    // Replica lag this table's reads tolerate; negative when not configured (the global default applies)
+    public long getMaxStalenessMillis() {
+        return maxStalenessMillis;
+    }
+}
@@ -1,17 +1,34 @@
 
 package com.api.pg.validator;
 
+import com.api.pg.ParameterizedQuery;
+import com.api.pg.ResultFormat;
+import com.api.pg.routing.ReadContext;
+import com.api.pg.routing.ReadRouting;
 import com.example.dsl.DslQueryExecutor;
 import com.example.dsl.JsonToDslTranslator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/v1/dsl")
@@ -19,36 +36,88 @@ public class DslController {
 
     private final DataSource dataSource;
     private final JsonToDslTranslator jsonToDslTranslator;
+    private final TotalHitsCounter totalHitsCounter;
+    private final ObjectMapper objectMapper;
+    private final ReadRouting readRouting;
 
     // Inject the translator into the controller
-    public DslController(DataSource dataSource, JsonToDslTranslator jsonToDslTranslator) {
+    public DslController(DataSource dataSource, JsonToDslTranslator jsonToDslTranslator, TotalHitsCounter totalHitsCounter,
+                         ObjectMapper objectMapper, ReadRouting readRouting) {
         this.dataSource = dataSource;
         this.jsonToDslTranslator = jsonToDslTranslator;
+        this.totalHitsCounter = totalHitsCounter;
+        this.objectMapper = objectMapper;
+        this.readRouting = readRouting;
     }
 
     @PostMapping("/query")
-    public ResponseEntity<Map<String, Object>> executeElasticSearchStyleQuery(@RequestBody Map<String, Object> queryRequest) {
-        try (Connection connection = dataSource.getConnection()) {
-            DslQueryExecutor executor = new DslQueryExecutor(connection);
-
-            // Use the translator to convert the JSON request to SQL
-            String sql = jsonToDslTranslator.translate(queryRequest);
-
-            // Execute query
-            ResultSet resultSet = executor.executeQuery(sql, null);  // Assuming no parameters for now
-            Map<String, Object> result = processResultSet(resultSet);
-            
-            return ResponseEntity.ok(result);
+    public ResponseEntity<?> executeElasticSearchStyleQuery(@RequestBody Map<String, Object> queryRequest,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            ResultFormat format = ResultFormat.fromAccept(accept);
+
+            // Use the translator to convert the JSON request to a SQL template and its parameters
+            ParameterizedQuery query = jsonToDslTranslator.translateToDsl(queryRequest);
+
+            // Start the total (track_total_hits) on its own connection so it overlaps the page query
+            CompletableFuture<Map<String, Object>> total = totalHitsCounter.countAsync(queryRequest);
+
+            // The page may be read from a replica within the queried tables' staleness budget
+            try (ReadContext ignored = readRouting.forQuery(query);
+                 Connection connection = dataSource.getConnection()) {
+                DslQueryExecutor executor = new DslQueryExecutor(connection);
+
+                // Execute query as a prepared statement
+                ResultSet resultSet = executor.executeQuery(query.getSql(), query.getParameters());
+                if (format != ResultFormat.JSON) {
+                    // Columnar formats carry the hits as "columns" and "rows", followed by next_cursor and total
+                    ByteArrayOutputStream body = new ByteArrayOutputStream();
+                    format.columnarWriter(objectMapper).write(resultSet, body, query.getKeyset(),
+                            () -> total != null ? Collections.singletonMap("total", total.join()) : Collections.emptyMap());
+                    return ResponseEntity.ok().contentType(format.getMediaType()).body(body.toByteArray());
+                }
+                Map<String, Object> result = processResultSet(resultSet);
+                if (query.getKeyset() != null) {
+                    result.put("next_cursor", query.getKeyset().nextToken((List<Map<String, Object>>) result.get("hits")));
+                }
+                if (total != null) {
+                    result.put("total", total.join());
+                }
+
+                return ResponseEntity.ok(result);
+            } catch (SQLException | IOException | RuntimeException e) {
+                // Nobody will read the total once the page has failed
+                if (total != null) {
+                    total.cancel(true);
+                }
+                throw e;
+            }
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
-        } catch (SQLException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "SQL error occurred"));
+            // Errors are always JSON, whatever format was accepted for results
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (SQLException | CompletionException | IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", "SQL error occurred"));
         }
     }
 
     // Helper method to process the ResultSet and return it as a JSON structure
     private Map<String, Object> processResultSet(ResultSet resultSet) throws SQLException {
-        // Logic to process the ResultSet and convert it into a JSON-like structure
-        // ...
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+
+        List<Map<String, Object>> hits = new ArrayList<>();
+        while (resultSet.next()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 1; i <= columnCount; i++) {
+                row.put(metaData.getColumnLabel(i), resultSet.getObject(i));
+            }
+            hits.add(row);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("hits", hits);
+        return result;
     }
 }
@@ -1,6 +1,9 @@
 
             package com.example.dsl;
 
+            import org.springframework.jdbc.core.SqlTypeValue;
+            import org.springframework.jdbc.core.StatementCreatorUtils;
+
             import java.sql.Connection;
             import java.sql.PreparedStatement;
             import java.sql.ResultSet;
@@ -18,9 +21,11 @@
                 public ResultSet executeQuery(String sqlQuery, List<Object> parameters) throws SQLException {
                     PreparedStatement statement = connection.prepareStatement(sqlQuery);
 
-                    // Bind parameters
-                    for (int i = 0; i < parameters.size(); i++) {
-                        statement.setObject(i + 1, parameters.get(i));
+                    // Bind parameters; typed values (SqlParameterValue) carry their column's JDBC type
+                    if (parameters != null) {
+                        for (int i = 0; i < parameters.size(); i++) {
+                            StatementCreatorUtils.setParameterValue(statement, i + 1, SqlTypeValue.TYPE_UNKNOWN, parameters.get(i));
+                        }
                     }
 
                     return statement.executeQuery();
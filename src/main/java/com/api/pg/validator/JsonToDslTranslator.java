@@ -1,134 +1,192 @@
 package com.example.dsl;
 
-import com.example.validation.QueryValidator;
+import com.api.pg.KeysetPagination;
+import com.api.pg.ParameterizedQuery;
+import com.api.pg.ast.ColumnRef;
+import com.api.pg.ast.Join;
+import com.api.pg.ast.OrderItem;
+import com.api.pg.ast.Predicate;
+import com.api.pg.ast.QueryCompiler;
+import com.api.pg.ast.SelectQuery;
+import com.api.pg.ast.TableRef;
+import com.api.pg.schema.SchemaCatalog;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Component
 public class JsonToDslTranslator {
 
-    private final QueryValidator queryValidator;
+    private static final Pattern JOIN_CONDITION = Pattern.compile("^([^\\s=<>!]+)\\s*(=|<>|!=|<=|>=|<|>)\\s*([^\\s=<>!]+)$");
 
-    public JsonToDslTranslator(QueryValidator queryValidator) {
-        this.queryValidator = queryValidator;
+    private final SchemaCatalog schemaCatalog;
+    private final QueryCompiler queryCompiler;
+
+    public JsonToDslTranslator(@Qualifier("dslSchemaCatalog") SchemaCatalog schemaCatalog) {
+        this.schemaCatalog = schemaCatalog;
+        this.queryCompiler = new QueryCompiler(schemaCatalog);
     }
 
     /**
-     * Translates the Elasticsearch-style JSON query request to a DSL query string.
+     * Translates the Elasticsearch-style JSON query request to a parameterized DSL query.
      * Handles JOINs, JSONB validation, and single table queries with alias support.
+     * Values from the request are never inlined; they are returned as bind parameters.
+     * A request carrying "search_after" (a continuation token, or an empty string for the
+     * first page) is paged by keyset instead of LIMIT/OFFSET.
      * @param queryRequest The incoming Elasticsearch-style query request.
-     * @return The corresponding DSL query string.
+     * @return The corresponding DSL query template and its bind parameters.
      * @throws IllegalArgumentException If the query is invalid.
      */
-    public String translateToDsl(Map<String, Object> queryRequest) throws IllegalArgumentException {
-        // Validate the query before translating it
-        if (!queryValidator.validateQuery(queryRequest)) {
-            throw new IllegalArgumentException("Invalid table, alias, or columns in the request.");
-        }
+    public ParameterizedQuery translateToDsl(Map<String, Object> queryRequest) throws IllegalArgumentException {
+        return queryCompiler.compile(toSelectQuery(queryRequest));
+    }
 
-        // Extract the source columns (_source) from the request
-        List<String> selectColumns = (List<String>) queryRequest.get("_source");
-        String select = String.join(", ", selectColumns);
+    /**
+     * Translates the request to a COUNT(*) over the same tables and conditions, without sort or page.
+     * @param queryRequest The incoming Elasticsearch-style query request.
+     * @return The count query template and its bind parameters.
+     * @throws IllegalArgumentException If the query is invalid.
+     */
+    public ParameterizedQuery translateCountToDsl(Map<String, Object> queryRequest) throws IllegalArgumentException {
+        return queryCompiler.compileCount(toSelectQuery(queryRequest));
+    }
+
+    // Maps the request to the query AST; the compiler checks it against the allowlist and renders it
+    private SelectQuery toSelectQuery(Map<String, Object> queryRequest) {
+        SelectQuery query = new SelectQuery();
 
         // Extract the table name or join tables
-        String from = handleFromClause(queryRequest);
+        TableRef from = TableRef.parse((String) queryRequest.get("from"));
+        query.from(from);
+        handleJoins(queryRequest, query);
 
-        // Start building the DSL query
-        StringBuilder queryString = new StringBuilder();
-        queryString.append("SELECT ").append(select).append(" FROM ").append(from);
+        // Extract the source columns (_source) from the request
+        List<String> selectColumns = (List<String>) queryRequest.get("_source");
+        if (selectColumns == null) {
+            throw new IllegalArgumentException("Missing _source columns.");
+        }
+        for (String column : selectColumns) {
+            query.select(ColumnRef.parse(column));
+        }
 
-        // Add WHERE clause if provided in the query
+        // Add WHERE conditions if provided in the query
         if (queryRequest.containsKey("query")) {
-            Map<String, Object> queryClause = (Map<String, Object>) queryRequest.get("query");
-            queryString.append(" WHERE ").append(handleQueryClause(queryClause));
+            handleQueryClause((Map<String, Object>) queryRequest.get("query"), query);
         }
 
-        // Add LIMIT and OFFSET for pagination
-        if (queryRequest.containsKey("size")) {
-            int limit = parseLimit(queryRequest.get("size"));
-            queryString.append(" LIMIT ").append(limit);
+        List<OrderItem> sortItems = handleSortColumns(queryRequest, selectColumns);
+        if (queryRequest.containsKey("search_after")) {
+            // Seek past the last row of the previous page instead of skipping rows with OFFSET
+            return query.keyset(createKeyset(queryRequest, from, sortItems), (String) queryRequest.get("search_after"));
         }
 
-        if (queryRequest.containsKey("from")) {
-            int offset = parseOffset(queryRequest.get("from"));
-            queryString.append(" OFFSET ").append(offset);
+        // Add ORDER BY if sort keys were requested
+        for (OrderItem sortItem : sortItems) {
+            query.orderBy(sortItem);
         }
 
-        // Return the final DSL query string
-        return queryString.toString();
+        // Add LIMIT and OFFSET for pagination
+        Integer limit = queryRequest.containsKey("size") ? parseLimit(queryRequest.get("size")) : null;
+        // "from" names the table, so the offset has its own key
+        Integer offset = queryRequest.containsKey("offset") ? parseOffset(queryRequest.get("offset")) : null;
+        return query.page(limit, offset);
     }
 
-    // Handle the FROM clause for single and JOIN queries with alias support
-    private String handleFromClause(Map<String, Object> queryRequest) {
-        if (queryRequest.containsKey("joins")) {
-            // Handling JOIN queries
-            List<Map<String, Object>> joins = (List<Map<String, Object>>) queryRequest.get("joins");
-            StringBuilder joinClause = new StringBuilder((String) queryRequest.get("from"));
+    // Handle the Elasticsearch-style "sort": [{"ef.created_at": "desc"}].
+    // Sort columns must be part of _source.
+    private List<OrderItem> handleSortColumns(Map<String, Object> queryRequest, List<String> selectColumns) {
+        List<OrderItem> sortItems = new ArrayList<>();
+        List<Map<String, Object>> sort = (List<Map<String, Object>>) queryRequest.get("sort");
+        if (sort == null) {
+            return sortItems;
+        }
+        for (Map<String, Object> sortEntry : sort) {
+            for (Map.Entry<String, Object> entry : sortEntry.entrySet()) {
+                String column = entry.getKey();
+                if (!selectColumns.contains(column)) {
+                    throw new IllegalArgumentException("Sort column " + column + " must be included in _source.");
+                }
+                sortItems.add(new OrderItem(ColumnRef.parse(column), OrderItem.isDescending(String.valueOf(entry.getValue()))));
+            }
+        }
+        return sortItems;
+    }
 
-            for (Map<String, Object> join : joins) {
-                String joinType = (String) join.get("type"); // e.g., INNER, LEFT
-                String joinTable = (String) join.get("table");
-                String joinCondition = (String) join.get("on");
+    // Keyset pages sort by at most one requested column plus the base table's key column as tiebreaker
+    private KeysetPagination createKeyset(Map<String, Object> queryRequest, TableRef from, List<OrderItem> sortItems) {
+        if (sortItems.size() > 1) {
+            throw new IllegalArgumentException("search_after supports a single sort column.");
+        }
+        String keyColumn = schemaCatalog.getKeyColumn(from.getTable());
 
-                joinClause.append(" ").append(joinType).append(" JOIN ").append(joinTable)
-                        .append(" ON ").append(joinCondition);
-            }
+        String sortColumn = null;
+        boolean descending = false;
+        if (!sortItems.isEmpty()) {
+            sortColumn = sortItems.get(0).getColumn().toExpression();
+            descending = sortItems.get(0).isDescending();
+        }
 
-            return joinClause.toString();
-        } else {
-            // Single table queries
-            return (String) queryRequest.get("from");
+        List<String> keysetColumns = KeysetPagination.sortColumns(sortColumn,
+                keyColumn != null ? from.getAlias() + "." + keyColumn : null);
+        int limit = queryRequest.containsKey("size") ? parseLimit(queryRequest.get("size")) : 10;
+        return new KeysetPagination(keysetColumns, descending, limit);
+    }
+
+    // Handle the JOIN clauses; "on" is a single column comparison such as "ef.type_id = ft.id"
+    private void handleJoins(Map<String, Object> queryRequest, SelectQuery query) {
+        List<Map<String, Object>> joins = (List<Map<String, Object>>) queryRequest.get("joins");
+        if (joins == null) {
+            return;
+        }
+        for (Map<String, Object> join : joins) {
+            String joinType = (String) join.get("type"); // e.g., INNER, LEFT
+            TableRef joinTable = TableRef.parse((String) join.get("table"));
+            query.join(new Join(joinType, joinTable, parseJoinCondition((String) join.get("on"))));
         }
     }
 
+    private Predicate parseJoinCondition(String joinCondition) {
+        Matcher matcher = joinCondition != null ? JOIN_CONDITION.matcher(joinCondition.trim()) : null;
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException("Invalid join condition: " + joinCondition);
+        }
+        return Predicate.compareColumns(ColumnRef.parse(matcher.group(1)), matcher.group(2), ColumnRef.parse(matcher.group(3)));
+    }
+
     // Handle the Elasticsearch-style WHERE clause
-    private String handleQueryClause(Map<String, Object> queryClause) {
+    private void handleQueryClause(Map<String, Object> queryClause, SelectQuery query) {
         Map<String, Object> boolClause = (Map<String, Object>) queryClause.get("bool");
 
-        StringBuilder whereString = new StringBuilder();
         if (boolClause.containsKey("must")) {
             List<Map<String, Object>> mustClauses = (List<Map<String, Object>>) boolClause.get("must");
-            whereString.append(handleMustClause(mustClauses));
+            handleMustClause(mustClauses, query);
         }
-
-        return whereString.toString();
     }
 
-    // Handle the MUST clause (logical AND) for multiple conditions
-    private String handleMustClause(List<Map<String, Object>> mustClauses) {
-        StringBuilder mustString = new StringBuilder();
-
-        for (int i = 0; i < mustClauses.size(); i++) {
-            Map<String, Object> condition = mustClauses.get(i);
+    // Handle the MUST clause (logical AND) for multiple conditions; values stay bind parameters
+    private void handleMustClause(List<Map<String, Object>> mustClauses, SelectQuery query) {
+        for (Map<String, Object> condition : mustClauses) {
             if (condition.containsKey("match")) {
                 Map<String, Object> matchClause = (Map<String, Object>) condition.get("match");
                 for (Map.Entry<String, Object> entry : matchClause.entrySet()) {
-                    String column = entry.getKey();
-                    Object value = entry.getValue();
-                    mustString.append(column).append(" = '").append(value).append("'");
+                    query.where(Predicate.compare(ColumnRef.parse(entry.getKey()), "=", entry.getValue()));
                 }
             } else if (condition.containsKey("range")) {
                 Map<String, Object> rangeClause = (Map<String, Object>) condition.get("range");
                 for (Map.Entry<String, Object> entry : rangeClause.entrySet()) {
-                    String column = entry.getKey();
+                    ColumnRef column = ColumnRef.parse(entry.getKey());
                     Map<String, Object> rangeValues = (Map<String, Object>) entry.getValue();
                     for (Map.Entry<String, Object> range : rangeValues.entrySet()) {
-                        String operator = convertRangeOperator(range.getKey());
-                        Object value = range.getValue();
-                        mustString.append(column).append(" ").append(operator).append(" ").append(value);
+                        query.where(Predicate.compare(column, convertRangeOperator(range.getKey()), range.getValue()));
                     }
                 }
             }
-
-            // Add AND between conditions if there are multiple must clauses
-            if (i < mustClauses.size() - 1) {
-                mustString.append(" AND ");
-            }
         }
-
-        return mustString.toString();
     }
 
     // Convert Elasticsearch range operators to SQL operators
@@ -0,0 +1,172 @@
+package com.api.pg.validator;
+
+import com.api.pg.ParameterizedQuery;
+import com.api.pg.routing.ReadContext;
+import com.api.pg.routing.ReadRouting;
+import com.example.dsl.JsonToDslTranslator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computes the "total" for DSL queries that ask for it with track_total_hits.
+ * {@code true} runs an exact COUNT(*) (compiled from the same query AST as the page query)
+ * on a second connection while the page query runs; {@code "estimate"} reads the planner's row
+ * estimate instead, which costs a plan rather than a scan on huge tables.
+ * The count is routed like the page query (same {@link ReadRouting} staleness budget), and cancelling
+ * the returned future cancels the statement if it is already running.
+ */
+@Component
+public class TotalHitsCounter {
+
+    private final DataSource dataSource;
+    private final JsonToDslTranslator jsonToDslTranslator;
+    private final ObjectMapper objectMapper;
+    private final ReadRouting readRouting;
+    private final ExecutorService executor;
+
+    public TotalHitsCounter(DataSource dataSource, JsonToDslTranslator jsonToDslTranslator, ObjectMapper objectMapper,
+                            ReadRouting readRouting, @Value("${dsl.total-hits.pool-size:4}") int poolSize) {
+        this.dataSource = dataSource;
+        this.jsonToDslTranslator = jsonToDslTranslator;
+        this.objectMapper = objectMapper;
+        this.readRouting = readRouting;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "dsl-total-hits-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Returns null when the request did not ask for a total
+    public CompletableFuture<Map<String, Object>> countAsync(Map<String, Object> queryRequest) {
+        Object trackTotalHits = queryRequest.get("track_total_hits");
+        if (trackTotalHits == null || Boolean.FALSE.equals(trackTotalHits)) {
+            return null;
+        }
+        boolean estimate = "estimate".equals(trackTotalHits);
+        if (!estimate && !Boolean.TRUE.equals(trackTotalHits)) {
+            throw new IllegalArgumentException("Invalid track_total_hits value: " + trackTotalHits);
+        }
+
+        // The total covers the whole query, not the current page
+        Map<String, Object> totalRequest = new HashMap<>(queryRequest);
+        totalRequest.remove("size");
+        totalRequest.remove("offset");
+        totalRequest.remove("sort");
+        totalRequest.remove("search_after");
+        ParameterizedQuery query = estimate
+                ? jsonToDslTranslator.translateToDsl(totalRequest)
+                : jsonToDslTranslator.translateCountToDsl(totalRequest);
+        boolean filtered = queryRequest.containsKey("query");
+
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        AtomicReference<Statement> running = new AtomicReference<>();
+        executor.execute(() -> {
+            // Cancelled while queued
+            if (result.isDone()) {
+                return;
+            }
+            // The pool thread has no ReadContext of its own, so open the page query's routing here
+            try (ReadContext ignored = readRouting.forQuery(query);
+                 Connection connection = dataSource.getConnection()) {
+                Map<String, Object> total = new HashMap<>();
+                if (estimate) {
+                    total.put("value", estimateRows(connection, query, filtered, result, running));
+                    total.put("relation", "estimate");
+                } else {
+                    total.put("value", queryForLong(connection, query.getSql(), query.getParameters(), result, running));
+                    total.put("relation", "eq");
+                }
+                result.complete(total);
+            } catch (SQLException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((total, error) -> {
+            if (result.isCancelled()) {
+                cancelQuietly(running.get());
+            }
+        });
+        return result;
+    }
+
+    // An unfiltered single table uses the statistics in pg_class; anything else asks the planner
+    private long estimateRows(Connection connection, ParameterizedQuery query, boolean filtered,
+                              CompletableFuture<?> result, AtomicReference<Statement> running) throws SQLException {
+        if (!filtered && query.getTables().size() == 1) {
+            return queryForLong(connection, "SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = to_regclass(?)",
+                    Collections.singletonList(query.getTables().iterator().next()), result, running);
+        }
+
+        try (PreparedStatement statement = prepare(connection, "EXPLAIN (FORMAT JSON) " + query.getSql(), query.getParameters(),
+                result, running);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            JsonNode plan = objectMapper.readTree(resultSet.getString(1));
+            return plan.get(0).get("Plan").get("Plan Rows").asLong();
+        } catch (IOException e) {
+            throw new SQLException("Unable to read query plan", e);
+        }
+    }
+
+    private long queryForLong(Connection connection, String sql, List<Object> parameters,
+                              CompletableFuture<?> result, AtomicReference<Statement> running) throws SQLException {
+        try (PreparedStatement statement = prepare(connection, sql, parameters, result, running);
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    // Publishes the statement so a cancel can reach it; a cancel that came first stops it here
+    private PreparedStatement prepare(Connection connection, String sql, List<Object> parameters,
+                                      CompletableFuture<?> result, AtomicReference<Statement> running) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < parameters.size(); i++) {
+            StatementCreatorUtils.setParameterValue(statement, i + 1, SqlTypeValue.TYPE_UNKNOWN, parameters.get(i));
+        }
+        running.set(statement);
+        if (result.isCancelled()) {
+            statement.close();
+            throw new SQLException("Total hits count cancelled");
+        }
+        return statement;
+    }
+
+    private static void cancelQuietly(Statement statement) {
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // The statement already finished or its connection is gone
+            }
+        }
+    }
+}
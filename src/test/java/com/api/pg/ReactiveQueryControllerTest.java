@@ -0,0 +1,128 @@
+package com.api.pg;
+
+import com.api.pg.schema.ColumnSchema;
+import com.api.pg.schema.SchemaCatalog;
+import com.api.pg.schema.TableSchema;
+import com.example.dsl.JsonToDslTranslator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReactiveQueryControllerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private MockMvc mockMvc;
+
+    private static SchemaCatalog catalog() {
+        Map<String, ColumnSchema> columns = new HashMap<>();
+        columns.put("id", new ColumnSchema("id", Types.BIGINT, "bigint", false, true, true));
+        columns.put("name", new ColumnSchema("name", Types.VARCHAR, "character varying", true, false, false));
+        columns.put("age", new ColumnSchema("age", Types.INTEGER, "integer", true, false, false));
+        Map<String, TableSchema> tables = new HashMap<>();
+        tables.put("users", new TableSchema("users", columns, Collections.emptySet(), "id", 0, 0));
+        return new SchemaCatalog(tables);
+    }
+
+    // In-memory H2 behind R2DBC stands in for PostgreSQL; lower-case names match the allowlist
+    @BeforeEach
+    void setUp() {
+        DatabaseClient databaseClient = DatabaseClient.create(ConnectionFactories.get(
+                "r2dbc:h2:mem:///reactive" + System.nanoTime() + "?options=DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE"));
+        databaseClient.sql("CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(64), age INT)").then().block();
+        for (int id = 1; id <= 5; id++) {
+            databaseClient.sql("INSERT INTO users VALUES ($1, $2, $3)")
+                    .bind(0, (long) id).bind(1, "user" + id).bind(2, 20 + id * 5)
+                    .then().block();
+        }
+
+        ReactiveQueryExecutionService executionService = new ReactiveQueryExecutionService();
+        ReflectionTestUtils.setField(executionService, "databaseClient", databaseClient);
+        ReflectionTestUtils.setField(executionService, "fetchSize", 2);
+
+        ReactiveQueryController controller = new ReactiveQueryController();
+        ReflectionTestUtils.setField(controller, "queryTranslator", new QueryTranslator(catalog()));
+        ReflectionTestUtils.setField(controller, "jsonToDslTranslator", new JsonToDslTranslator(catalog()));
+        ReflectionTestUtils.setField(controller, "reactiveQueryExecutionService", executionService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private static String olderThan(int age) throws Exception {
+        Map<String, Object> condition = new HashMap<>();
+        condition.put("operator", ">");
+        condition.put("value", age);
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("table", "users");
+        request.put("fields", Arrays.asList("id", "name"));
+        request.put("conditions", Collections.singletonMap("age", condition));
+        return MAPPER.writeValueAsString(request);
+    }
+
+    private MvcResult execute(String body, String accept) throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/reactive/query/execute")
+                        .contentType("application/json").accept(accept).content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andReturn();
+    }
+
+    @Test
+    void streamsRowsAsNdjson() throws Exception {
+        MvcResult result = execute(olderThan(30), "application/x-ndjson");
+
+        assertEquals(200, result.getResponse().getStatus());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            rows.add(MAPPER.readValue(line, new TypeReference<Map<String, Object>>() {}));
+        }
+        assertEquals(Arrays.asList("user3", "user4", "user5"), names(rows));
+    }
+
+    @Test
+    void collectsRowsIntoAJsonArray() throws Exception {
+        MvcResult result = execute(olderThan(40), "application/json");
+
+        List<Map<String, Object>> rows = MAPPER.readValue(result.getResponse().getContentAsString(),
+                new TypeReference<List<Map<String, Object>>>() {});
+        assertEquals(Arrays.asList("user5"), names(rows));
+    }
+
+    @Test
+    void rejectsTablesOutsideTheAllowlist() throws Exception {
+        String body = "{\"table\": \"secrets\", \"fields\": [\"id\"]}";
+        MvcResult started = mockMvc.perform(post("/api/reactive/query/execute")
+                        .contentType("application/json").accept("application/x-ndjson").content(body))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isBadRequest());
+    }
+
+    private static List<Object> names(List<Map<String, Object>> rows) {
+        List<Object> names = new ArrayList<>();
+        rows.forEach(row -> names.add(row.get("name")));
+        return names;
+    }
+}
@@ -0,0 +1,108 @@
+package com.api.pg.ast;
+
+import com.api.pg.KeysetPagination;
+import com.api.pg.ParameterizedQuery;
+import com.api.pg.schema.ColumnSchema;
+import com.api.pg.schema.SchemaCatalog;
+import com.api.pg.schema.TableSchema;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryCompilerTest {
+
+    private final QueryCompiler compiler = new QueryCompiler(catalog());
+
+    private static SchemaCatalog catalog() {
+        Map<String, ColumnSchema> columns = new HashMap<>();
+        columns.put("id", new ColumnSchema("id", Types.BIGINT, "bigint", false, true, true));
+        columns.put("age", new ColumnSchema("age", Types.INTEGER, "integer", true, false, false));
+        columns.put("amount", new ColumnSchema("amount", Types.NUMERIC, "numeric", false, false, false));
+        columns.put("created_at", new ColumnSchema("created_at", Types.TIMESTAMP, "timestamp without time zone", false, false, false));
+        columns.put("name", ColumnSchema.untyped("name"));
+        Map<String, TableSchema> tables = new HashMap<>();
+        tables.put("users", new TableSchema("users", columns, Collections.emptySet(), "id", 0, -1));
+        return new SchemaCatalog(tables);
+    }
+
+    // Compiles the page after a last row with the given sort value
+    private ParameterizedQuery nextPage(String sortColumn, boolean descending, Object lastSortValue) {
+        KeysetPagination keyset = new KeysetPagination(KeysetPagination.sortColumns(sortColumn, "id"), descending, 2);
+        Map<String, Object> lastRow = new HashMap<>();
+        lastRow.put(sortColumn, lastSortValue);
+        lastRow.put("id", 7L);
+        String token = keyset.nextToken(Arrays.asList(lastRow, lastRow));
+        SelectQuery query = new SelectQuery().from(new TableRef("users", null));
+        query.select(ColumnRef.parse("id"));
+        return compiler.compile(query.keyset(keyset, token));
+    }
+
+    private static Object value(Object parameter) {
+        return parameter instanceof SqlParameterValue ? ((SqlParameterValue) parameter).getValue() : parameter;
+    }
+
+    @Test
+    void seeksWithRowComparisonOnNotNullSortColumn() {
+        ParameterizedQuery query = nextPage("created_at", false, Timestamp.valueOf("2024-01-02 03:04:05.123456"));
+        assertEquals("SELECT id, created_at FROM users WHERE (created_at, id) > (?, ?) ORDER BY created_at ASC, id ASC LIMIT ?",
+                query.getSql());
+        assertEquals(Timestamp.valueOf("2024-01-02 03:04:05.123456"), value(query.getParameters().get(0)));
+    }
+
+    @Test
+    void ascendingSeekOnNullableColumnKeepsTheTrailingNulls() {
+        ParameterizedQuery query = nextPage("age", false, 30);
+        assertEquals("SELECT id, age FROM users WHERE ((age, id) > (?, ?) OR age IS NULL) ORDER BY age ASC, id ASC LIMIT ?",
+                query.getSql());
+    }
+
+    @Test
+    void ascendingSeekFromANullContinuesInsideTheNulls() {
+        ParameterizedQuery query = nextPage("age", false, null);
+        assertEquals("SELECT id, age FROM users WHERE (age IS NULL AND id > ?) ORDER BY age ASC, id ASC LIMIT ?",
+                query.getSql());
+        assertEquals(7L, value(query.getParameters().get(0)));
+    }
+
+    @Test
+    void descendingSeekFromANullMovesOnToTheValues() {
+        ParameterizedQuery query = nextPage("age", true, null);
+        assertEquals("SELECT id, age FROM users WHERE ((age IS NULL AND id < ?) OR age IS NOT NULL) ORDER BY age DESC, id DESC LIMIT ?",
+                query.getSql());
+    }
+
+    @Test
+    void untypedSortColumnIsTreatedAsNullable() {
+        ParameterizedQuery query = nextPage("name", false, "bob");
+        assertTrue(query.getSql().contains("OR name IS NULL"));
+    }
+
+    @Test
+    void numericContinuationKeepsItsPrecision() {
+        BigDecimal amount = new BigDecimal("12345678901234567890.123456789");
+        ParameterizedQuery query = nextPage("amount", false, amount);
+        assertEquals(amount, value(query.getParameters().get(0)));
+    }
+
+    @Test
+    void rejectsTokenWithoutKeyValue() {
+        KeysetPagination keyset = new KeysetPagination(KeysetPagination.sortColumns(null, "id"), false, 1);
+        Map<String, Object> lastRow = new HashMap<>();
+        lastRow.put("id", null);
+        String token = keyset.nextToken(Collections.singletonList(lastRow));
+        SelectQuery query = new SelectQuery().from(new TableRef("users", null));
+        query.select(ColumnRef.parse("id"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(query.keyset(keyset, token)));
+    }
+}
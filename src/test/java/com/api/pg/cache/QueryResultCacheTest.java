@@ -0,0 +1,74 @@
+package com.api.pg.cache;
+
+import com.api.pg.ParameterizedQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryResultCacheTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryResultCache cache = cache();
+
+    private QueryResultCache cache() {
+        QueryResultCache cache = new QueryResultCache(registry);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1 << 20);
+        ReflectionTestUtils.setField(cache, "defaultSchema", "public");
+        return cache;
+    }
+
+    private static ParameterizedQuery query(String table) {
+        return new ParameterizedQuery("SELECT id FROM " + table, Collections.emptyList(), null,
+                Collections.singleton(table), null);
+    }
+
+    private void put(ParameterizedQuery query) {
+        List<Map<String, Object>> rows = Collections.singletonList(Collections.singletonMap("id", 1L));
+        cache.put(query, rows, 60_000, cache.currentInvalidationStamp());
+    }
+
+    @Test
+    void qualifiedNotificationInvalidatesUnqualifiedTable() {
+        put(query("users"));
+
+        cache.invalidateTable("public.users");
+
+        assertNull(cache.get(query("users")));
+    }
+
+    @Test
+    void unqualifiedNameResolvesInTheDefaultSchemaOnly() {
+        put(query("users"));
+        put(query("audit.events"));
+
+        cache.invalidateTable("events");
+        cache.invalidateTable("audit.users");
+
+        assertNotNull(cache.get(query("users")));
+        assertNotNull(cache.get(query("audit.events")));
+
+        cache.invalidateTable("audit.events");
+        assertNull(cache.get(query("audit.events")));
+    }
+
+    @Test
+    void publishesHitRatioAndSizeGauges() {
+        put(query("users"));
+        cache.get(query("users"));
+        cache.get(query("orders"));
+
+        assertEquals(0.5, registry.get("query.cache.hit.ratio").gauge().value());
+        assertEquals(1.0, registry.get("query.cache.entries").gauge().value());
+        assertTrue(registry.get("query.cache.bytes").gauge().value() > 0);
+    }
+}
@@ -0,0 +1,195 @@
+package com.api.pg.client;
+
+import com.api.pg.client.prompt.PromptChunker;
+import com.api.pg.config.GptConfig;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GptServiceTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Query text budget per chunk, on top of the fixed part of the prompt and the completion
+    private static final int CHUNK_TOKENS = 40;
+
+    @TempDir
+    Path dir;
+
+    // Local stand-in for the completions API: answers with the next scripted completion, after
+    // first sending as many 429 responses as rateLimitedResponses asks for
+    private HttpServer server;
+    private final List<String> prompts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger rateLimitedResponses = new AtomicInteger();
+    private volatile String retryAfter = "1";
+    private volatile List<String> completions = Collections.singletonList("ACCOUNT_NUMBER: DE001");
+
+    private GptConfig gptConfig;
+    private GptService gptService;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/completions", this::complete);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        if (gptService != null) {
+            gptService.close();
+        }
+        server.stop(0);
+    }
+
+    private void complete(HttpExchange exchange) throws IOException {
+        Map<String, Object> request = MAPPER.readValue(exchange.getRequestBody(), new TypeReference<Map<String, Object>>() {});
+        requests.incrementAndGet();
+        if (rateLimitedResponses.getAndDecrement() > 0) {
+            exchange.getResponseHeaders().add("Retry-After", retryAfter);
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+            return;
+        }
+        prompts.add((String) request.get("prompt"));
+        String completion = completions.get((prompts.size() - 1) % completions.size());
+        byte[] body = MAPPER.writeValueAsBytes(Collections.singletonMap("choices",
+                Collections.singletonList(Collections.singletonMap("text", completion))));
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Service over the given query text lines, with chunks of CHUNK_TOKENS and the response cache off
+    private GptService service(List<String> queryLines, int parallelism) throws IOException {
+        Path queryText = dir.resolve("query_text.csv");
+        StringBuilder csv = new StringBuilder("query_text\n");
+        queryLines.forEach(line -> csv.append(line).append('\n'));
+        Files.write(queryText, csv.toString().getBytes(StandardCharsets.UTF_8));
+        Path trustedContext = dir.resolve("trusted_context.csv");
+        Files.write(trustedContext, ("account,holder_name,balance,currency,bic\n"
+                + "DE001,Jane Doe,100.00,EUR,ABCDEF12\n").getBytes(StandardCharsets.UTF_8));
+
+        gptConfig = new GptConfig();
+        ReflectionTestUtils.setField(gptConfig, "queryTextCsvfile", queryText.toString());
+        ReflectionTestUtils.setField(gptConfig, "trustedContextCsvfile", trustedContext.toString());
+        ReflectionTestUtils.setField(gptConfig, "contextFilter", false);
+        ReflectionTestUtils.setField(gptConfig, "apiUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/completions");
+        ReflectionTestUtils.setField(gptConfig, "apiKey", "");
+        ReflectionTestUtils.setField(gptConfig, "model", "test-model");
+        ReflectionTestUtils.setField(gptConfig, "maxTokens", 16);
+        ReflectionTestUtils.setField(gptConfig, "parallelism", parallelism);
+        ReflectionTestUtils.setField(gptConfig, "maxRetries", 2);
+        ReflectionTestUtils.setField(gptConfig, "backoffDelayMillis", 10L);
+        ReflectionTestUtils.setField(gptConfig, "maxBackoffDelayMillis", 20L);
+        ReflectionTestUtils.setField(gptConfig, "requestTimeoutMillis", 10000L);
+        ReflectionTestUtils.setField(gptConfig, "cacheEnabled", false);
+
+        gptService = new GptService();
+        ReflectionTestUtils.setField(gptService, "gptConfig", gptConfig);
+        ReflectionTestUtils.setField(gptService, "gptWebClient", WebClient.create());
+        gptService.init();
+
+        int fixedTokens = PromptChunker.estimateTokens(gptService.constructGptPrompt("", gptService.readTrustedContextCsv()));
+        ReflectionTestUtils.setField(gptConfig, "contextWindowTokens", gptConfig.getMaxTokens() + fixedTokens + CHUNK_TOKENS);
+        return gptService;
+    }
+
+    private static List<String> queryLines(int count) {
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            // No commas: each line is a single query_text field of the CSV
+            lines[i] = "Transfer " + i + " from Jane Doe to account DE001 BIC ABCDEF12";
+        }
+        return Arrays.asList(lines);
+    }
+
+    @Test
+    void sendsOneFittingPromptPerChunkInChunkOrder() throws IOException {
+        List<String> lines = queryLines(12);
+        Map<String, Object> result = service(lines, 4).detectEntities();
+
+        List<String> expectedChunks = PromptChunker.chunk(String.join("\n", lines), CHUNK_TOKENS);
+        assertTrue(expectedChunks.size() > 1);
+        assertEquals(expectedChunks.size(), prompts.size());
+        int promptBudget = gptConfig.getContextWindowTokens() - gptConfig.getMaxTokens();
+        for (String prompt : prompts) {
+            assertTrue(PromptChunker.estimateTokens(prompt) <= promptBudget, "prompt over budget: " + prompt);
+        }
+        // Every line is sent exactly once, and the prompts in the result follow the chunk order
+        for (String line : lines) {
+            assertEquals(1, prompts.stream().filter(prompt -> prompt.contains(line + "\n")).count(), line);
+        }
+        List<String> resultPrompts = (List<String>) result.get("prompts");
+        for (int i = 0; i < expectedChunks.size(); i++) {
+            assertTrue(resultPrompts.get(i).contains("Text: " + expectedChunks.get(i) + "\n"));
+        }
+    }
+
+    @Test
+    void waitsForRetryAfterOnRateLimit() throws IOException {
+        rateLimitedResponses.set(1);
+        long start = System.nanoTime();
+        Map<String, Object> result = service(queryLines(1), 1).detectEntities();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(2, requests.get());
+        // The jittered backoff is 10-20 ms here, so only Retry-After explains a wait of about a second
+        assertTrue(elapsedMillis >= 900, "retried after " + elapsedMillis + " ms");
+        assertEquals("ACCOUNT_NUMBER: DE001\n", result.get("gpt_response"));
+    }
+
+    @Test
+    void givesUpAfterMaxRetries() throws IOException {
+        rateLimitedResponses.set(Integer.MAX_VALUE);
+        retryAfter = "0";
+        GptService service = service(queryLines(1), 1);
+
+        RuntimeException e = assertThrows(RuntimeException.class, service::detectEntities);
+        WebClientResponseException failure = assertInstanceOf(WebClientResponseException.class, e.getCause());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, failure.getStatusCode());
+        assertEquals(1 + gptConfig.getMaxRetries(), requests.get());
+    }
+
+    @Test
+    void mergesEntitiesAcrossChunksWithoutDuplicates() throws IOException {
+        completions = Arrays.asList(
+                "ACCOUNT_NUMBER: DE001\nHOLDER_NAME: Jane Doe",
+                "Found these:\n- HOLDER_NAME: JANE  DOE\nBIC: ABCDEF12\nACCOUNT_NUMBER: DE001");
+        Map<String, Object> result = service(queryLines(12), 1).detectEntities();
+
+        assertTrue(prompts.size() > 1);
+        assertEquals("ACCOUNT_NUMBER: DE001\nHOLDER_NAME: Jane Doe\nBIC: ABCDEF12\n", result.get("gpt_response"));
+        assertEquals(3, ((List<?>) result.get("entities")).size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.api.pg.client.lb;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyEwmaLoadBalancerTest {
+
+    private final LatencyEwmaLoadBalancer loadBalancer = new LatencyEwmaLoadBalancer(0.3, TimeUnit.SECONDS.toNanos(1));
+
+    private final ServiceInstance fast = new DefaultServiceInstance("fast", "api", "fast", 8080, false);
+    private final ServiceInstance slow = new DefaultServiceInstance("slow", "api", "slow", 8080, false);
+    private final ServiceInstance fresh = new DefaultServiceInstance("fresh", "api", "fresh", 8080, false);
+    private final List<ServiceInstance> candidates = Arrays.asList(fast, slow, fresh);
+
+    private void measure(ServiceInstance instance, long latencyMillis) {
+        loadBalancer.onStart(instance);
+        loadBalancer.onComplete(instance, TimeUnit.MILLISECONDS.toNanos(latencyMillis), true);
+    }
+
+    @Test
+    void unmeasuredInstanceDoesNotTakeAllTheTraffic() {
+        measure(fast, 10);
+        measure(slow, 30);
+
+        // Scored at the median (20 ms), the new instance shares the load instead of taking every request
+        int freshChosen = 0;
+        for (int i = 0; i < 10; i++) {
+            ServiceInstance chosen = loadBalancer.choose(candidates);
+            loadBalancer.onStart(chosen);
+            if (chosen == fresh) {
+                freshChosen++;
+            }
+        }
+        assertTrue(freshChosen > 0 && freshChosen < 10);
+    }
+
+    @Test
+    void unmeasuredInstanceBeatsASlowerOne() {
+        measure(fast, 10);
+        measure(slow, 30);
+        loadBalancer.onStart(fast);
+        loadBalancer.onStart(fast);
+
+        // fast scores 10 ms x 3, fresh 20 ms x 1, slow 30 ms x 1
+        assertEquals(fresh, loadBalancer.choose(candidates));
+    }
+
+    @Test
+    void withNothingMeasuredTheLeastBusyInstanceWins() {
+        loadBalancer.onStart(fast);
+        loadBalancer.onStart(slow);
+
+        assertEquals(fresh, loadBalancer.choose(candidates));
+    }
+}
@@ -0,0 +1,70 @@
+package com.api.pg.explain;
+
+import com.api.pg.schema.SchemaCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlanParserTest {
+
+    private final PlanParser planParser = new PlanParser(catalog());
+
+    private static SchemaCatalog catalog() {
+        Map<String, Map<String, List<String>>> allowlist = new HashMap<>();
+        allowlist.put("users", Collections.singletonMap("columns", Arrays.asList("id", "name", "email", "age")));
+        allowlist.put("orders", Collections.singletonMap("columns", Arrays.asList("order_id", "user_id", "amount", "status")));
+        return SchemaCatalog.fromAllowlist(allowlist);
+    }
+
+    // Captured EXPLAIN (FORMAT JSON) output under src/test/resources/plans
+    private static String plan(String name) throws IOException {
+        try (InputStream in = PlanParserTest.class.getClassLoader().getResourceAsStream("plans/" + name);
+             Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+
+    @Test
+    void seqScanFilterReportsTheFilteredColumns() throws IOException {
+        List<PlanFinding> findings = planParser.parse(plan("seq_scan_filter.json"));
+
+        assertEquals(1, findings.size());
+        PlanFinding finding = findings.get(0);
+        assertEquals(PlanFinding.Kind.SEQ_SCAN_FILTER, finding.getKind());
+        assertEquals("orders", finding.getTable());
+        assertEquals(Arrays.asList("status", "user_id"), finding.getColumns());
+    }
+
+    @Test
+    void sortWithoutIndexReportsTheSortKeysOfTheAliasedTable() throws IOException {
+        List<PlanFinding> findings = planParser.parse(plan("sort_without_index.json"));
+
+        assertEquals(1, findings.size());
+        PlanFinding finding = findings.get(0);
+        assertEquals(PlanFinding.Kind.SORT_WITHOUT_INDEX, finding.getKind());
+        assertEquals("users", finding.getTable());
+        assertEquals(Arrays.asList("age", "id"), finding.getColumns());
+    }
+
+    @Test
+    void indexScanHasNoFindings() throws IOException {
+        assertTrue(planParser.parse(plan("index_scan.json")).isEmpty());
+    }
+
+    @Test
+    void rejectsJsonThatIsNotAPlan() {
+        assertThrows(IOException.class, () -> planParser.parse("{\"rows\": []}"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.api.pg.routing;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgresReplicaLagProbeTest {
+
+    private final PostgresReplicaLagProbe probe = new PostgresReplicaLagProbe();
+    private String executedSql;
+
+    // A replica whose lag query returns the given value, or SQL NULL for null
+    private DataSource replicaReturning(Long lag) {
+        ResultSet resultSet = proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "next": return true;
+                case "getLong": return lag != null ? lag : 0L;
+                case "wasNull": return lag == null;
+                default: return null;
+            }
+        });
+        Statement statement = proxy(Statement.class, (method, args) -> {
+            if (method.equals("executeQuery")) {
+                executedSql = (String) args[0];
+                return resultSet;
+            }
+            return null;
+        });
+        Connection connection = proxy(Connection.class, (method, args) -> method.equals("createStatement") ? statement : null);
+        return proxy(DataSource.class, (method, args) -> method.equals("getConnection") ? connection : null);
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method.getName(), args));
+    }
+
+    @Test
+    void reportsTheMeasuredLag() throws SQLException {
+        assertEquals(1500L, probe.lagMillis(replicaReturning(1500L)));
+    }
+
+    @Test
+    void onlyAStreamingReceiverCountsAsCaughtUp() throws SQLException {
+        probe.lagMillis(replicaReturning(0L));
+
+        assertTrue(executedSql.contains("pg_stat_wal_receiver WHERE status = 'streaming'"));
+        assertTrue(executedSql.contains("WHEN streaming AND pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"));
+    }
+
+    @Test
+    void unknownLagFailsTheCheck() {
+        assertThrows(SQLException.class, () -> probe.lagMillis(replicaReturning(null)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.api.pg.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTest {
+
+    // In-memory stand-ins: each data source hands out connections that report its name as their catalog
+    private final DataSource primary = dataSource("primary");
+    private final DataSource replica = dataSource("replica");
+
+    // Lag of the replica as the probe reports it; null makes the check fail
+    private volatile Long replicaLag;
+    private final ReplicaLagProbe probe = dataSource -> {
+        Long lag = replicaLag;
+        if (lag == null) {
+            throw new SQLException("WAL receiver is not streaming");
+        }
+        return lag;
+    };
+
+    private final ReplicaRoutingDataSource routing =
+            new ReplicaRoutingDataSource(primary, Collections.singletonMap("replica-0", replica), probe);
+
+    @AfterEach
+    void close() {
+        routing.close();
+    }
+
+    private static DataSource dataSource(String name) {
+        Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> method.getName().equals("getCatalog") ? name : null);
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> method.getName().equals("getConnection") ? connection : null);
+    }
+
+    private String readWithin(long maxStalenessMillis) throws SQLException {
+        try (ReadContext ignored = ReadContext.open(maxStalenessMillis);
+             Connection connection = routing.getConnection()) {
+            return connection.getCatalog();
+        }
+    }
+
+    @Test
+    void readWithinTheBudgetGoesToTheReplica() throws SQLException {
+        replicaLag = 100L;
+        routing.start(60_000);
+
+        assertEquals("replica", readWithin(1000));
+    }
+
+    @Test
+    void connectionsOutsideAReadContextGoToThePrimary() throws SQLException {
+        replicaLag = 0L;
+        routing.start(60_000);
+
+        try (Connection connection = routing.getConnection()) {
+            assertEquals("primary", connection.getCatalog());
+        }
+    }
+
+    @Test
+    void replicaBehindTheBudgetIsSkipped() throws SQLException {
+        replicaLag = 5000L;
+        routing.start(60_000);
+
+        assertEquals("primary", readWithin(1000));
+    }
+
+    @Test
+    void replicaWithAFailedCheckIsSkippedUntilItRecovers() throws SQLException {
+        routing.start(60_000);
+        assertEquals("primary", readWithin(1000));
+
+        replicaLag = 0L;
+        routing.checkReplicas();
+
+        assertEquals("replica", readWithin(1000));
+    }
+}
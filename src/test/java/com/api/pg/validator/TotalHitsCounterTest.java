@@ -0,0 +1,187 @@
+package com.api.pg.validator;
+
+import com.api.pg.routing.ReadContext;
+import com.api.pg.routing.ReadRouting;
+import com.api.pg.schema.ColumnSchema;
+import com.api.pg.schema.SchemaCatalog;
+import com.api.pg.schema.TableSchema;
+import com.example.dsl.JsonToDslTranslator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TotalHitsCounterTest {
+
+    // Records what the counter asks of the database and answers every query with a single count
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+    private final List<Long> stalenessBudgets = new CopyOnWriteArrayList<>();
+    private final CountDownLatch executing = new CountDownLatch(1);
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private volatile boolean blockQueries;
+
+    private final TotalHitsCounter counter = new TotalHitsCounter(dataSource(), new JsonToDslTranslator(catalog()),
+            new ObjectMapper(), new ReadRouting(1000), 1);
+
+    @AfterEach
+    void shutdown() {
+        counter.shutdown();
+    }
+
+    private static SchemaCatalog catalog() {
+        Map<String, ColumnSchema> columns = new HashMap<>();
+        columns.put("id", new ColumnSchema("id", Types.BIGINT, "bigint", false, true, true));
+        columns.put("age", new ColumnSchema("age", Types.INTEGER, "integer", true, false, false));
+        Map<String, TableSchema> tables = new HashMap<>();
+        tables.put("users", new TableSchema("users", columns, Collections.emptySet(), "id", 0, 250));
+        return new SchemaCatalog(tables);
+    }
+
+    private static Map<String, Object> request(Object trackTotalHits) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("from", "users");
+        request.put("_source", Arrays.asList("id", "age"));
+        request.put("size", 10);
+        request.put("offset", 20);
+        request.put("sort", Collections.singletonList(Collections.singletonMap("age", "desc")));
+        request.put("track_total_hits", trackTotalHits);
+        return request;
+    }
+
+    private DataSource dataSource() {
+        return proxy(DataSource.class, (method, args) -> {
+            if (method.equals("getConnection")) {
+                ReadContext context = ReadContext.current();
+                stalenessBudgets.add(context != null ? context.getMaxStalenessMillis() : -1L);
+                return connection();
+            }
+            return null;
+        });
+    }
+
+    private Connection connection() {
+        return proxy(Connection.class, (method, args) -> {
+            if (method.equals("prepareStatement")) {
+                statements.add((String) args[0]);
+                return statement();
+            }
+            return null;
+        });
+    }
+
+    private PreparedStatement statement() {
+        return proxy(PreparedStatement.class, (method, args) -> {
+            if (method.equals("executeQuery")) {
+                executing.countDown();
+                if (blockQueries) {
+                    cancelled.await(5, TimeUnit.SECONDS);
+                }
+                return resultSet();
+            }
+            if (method.equals("cancel")) {
+                cancelled.countDown();
+            }
+            return null;
+        });
+    }
+
+    private static ResultSet resultSet() {
+        boolean[] read = {false};
+        return proxy(ResultSet.class, (method, args) -> {
+            if (method.equals("next")) {
+                boolean hasRow = !read[0];
+                read[0] = true;
+                return hasRow;
+            }
+            if (method.equals("getLong")) {
+                return 42L;
+            }
+            if (method.equals("getString")) {
+                return "[{\"Plan\": {\"Plan Rows\": 7}}]";
+            }
+            return null;
+        });
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result = handler.handle(method.getName(), args);
+                    if (result == null && method.getReturnType() == boolean.class) {
+                        return false;
+                    }
+                    return result;
+                });
+    }
+
+    @Test
+    void exactTotalCountsTheWholeQuery() {
+        Map<String, Object> total = counter.countAsync(request(true)).join();
+
+        assertEquals(42L, total.get("value"));
+        assertEquals("eq", total.get("relation"));
+        assertEquals(Collections.singletonList("SELECT COUNT(*) FROM users"), statements);
+    }
+
+    @Test
+    void estimateAsksThePlannerAboutTheWholeQuery() {
+        Map<String, Object> request = request("estimate");
+        request.put("query", Collections.singletonMap("bool", Collections.singletonMap("must",
+                Collections.singletonList(Collections.singletonMap("match", Collections.singletonMap("users.age", 30))))));
+        Map<String, Object> total = counter.countAsync(request).join();
+
+        assertEquals(7L, total.get("value"));
+        assertEquals("estimate", total.get("relation"));
+        assertEquals(Collections.singletonList("EXPLAIN (FORMAT JSON) SELECT id, age FROM users WHERE users.age = ?"),
+                statements);
+    }
+
+    @Test
+    void countRunsWithThePageQueryStalenessBudget() {
+        counter.countAsync(request(true)).join();
+
+        assertEquals(Collections.singletonList(250L), stalenessBudgets);
+    }
+
+    @Test
+    void noTotalUnlessRequested() {
+        assertNull(counter.countAsync(request(false)));
+        assertTrue(statements.isEmpty());
+    }
+
+    @Test
+    void cancellingTheFutureCancelsTheRunningStatement() throws InterruptedException {
+        blockQueries = true;
+        CompletableFuture<Map<String, Object>> total = counter.countAsync(request(true));
+        assertTrue(executing.await(5, TimeUnit.SECONDS));
+
+        total.cancel(true);
+
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        assertTrue(total.isCancelled());
+    }
+}